@@ -0,0 +1,30 @@
+package za.ac.cput.DTO;
+
+import lombok.Getter;
+
+@Getter
+public class BulkEnrollmentResult {
+
+    public enum Outcome {
+        CREATED,
+        ALREADY_ENROLLED,
+        DUPLICATE_ROW,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        INVALID
+    }
+
+    private final int row;
+    private final Long studentId;
+    private final Long courseId;
+    private final Outcome outcome;
+    private final String message;
+
+    public BulkEnrollmentResult(int row, Long studentId, Long courseId, Outcome outcome, String message) {
+        this.row = row;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.outcome = outcome;
+        this.message = message;
+    }
+}
@@ -0,0 +1,14 @@
+package za.ac.cput.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// One line of a bulk enrollment: the student by id or email, the course by id or title
+@Getter
+@Setter
+public class BulkEnrollmentRow {
+    private Long studentId;
+    private String email;
+    private Long courseId;
+    private String courseTitle;
+}
@@ -0,0 +1,18 @@
+package za.ac.cput.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Target status plus either explicit ids or a filter (course, current status, enrolled before)
+@Getter
+@Setter
+public class BulkStatusRequest {
+    private String status;
+    private List<Long> ids;
+    private Long courseId;
+    private String currentStatus;
+    private LocalDateTime enrolledBefore;
+}
@@ -0,0 +1,43 @@
+package za.ac.cput.DTO;
+
+public class CourseEnrollmentStatsDTO {
+    private Long courseId;
+    private String courseTitle;
+    private long pending;
+    private long approved;
+    private long rejected;
+    private long waitlisted;
+
+    public CourseEnrollmentStatsDTO() {}
+
+    public CourseEnrollmentStatsDTO(Long courseId, String courseTitle, long pending, long approved, long rejected,
+                                    long waitlisted) {
+        this.courseId = courseId;
+        this.courseTitle = courseTitle;
+        this.pending = pending;
+        this.approved = approved;
+        this.rejected = rejected;
+        this.waitlisted = waitlisted;
+    }
+
+    // Getters and Setters
+    public Long getCourseId() { return courseId; }
+    public void setCourseId(Long courseId) { this.courseId = courseId; }
+
+    public String getCourseTitle() { return courseTitle; }
+    public void setCourseTitle(String courseTitle) { this.courseTitle = courseTitle; }
+
+    public long getPending() { return pending; }
+    public void setPending(long pending) { this.pending = pending; }
+
+    public long getApproved() { return approved; }
+    public void setApproved(long approved) { this.approved = approved; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getWaitlisted() { return waitlisted; }
+    public void setWaitlisted(long waitlisted) { this.waitlisted = waitlisted; }
+
+    public long getTotal() { return pending + approved + rejected + waitlisted; }
+}
@@ -0,0 +1,38 @@
+package za.ac.cput.DTO;
+
+import java.time.Instant;
+
+public class CourseMediaDTO {
+    private Long courseId;
+    private String imageDigest;
+    private Long imageSize;
+    private String imageContentType;
+    private Instant imageUpdatedAt;
+
+    public CourseMediaDTO() {}
+
+    public CourseMediaDTO(Long courseId, String imageDigest, Long imageSize,
+                          String imageContentType, Instant imageUpdatedAt) {
+        this.courseId = courseId;
+        this.imageDigest = imageDigest;
+        this.imageSize = imageSize;
+        this.imageContentType = imageContentType;
+        this.imageUpdatedAt = imageUpdatedAt;
+    }
+
+    // Getters and Setters
+    public Long getCourseId() { return courseId; }
+    public void setCourseId(Long courseId) { this.courseId = courseId; }
+
+    public String getImageDigest() { return imageDigest; }
+    public void setImageDigest(String imageDigest) { this.imageDigest = imageDigest; }
+
+    public Long getImageSize() { return imageSize; }
+    public void setImageSize(Long imageSize) { this.imageSize = imageSize; }
+
+    public String getImageContentType() { return imageContentType; }
+    public void setImageContentType(String imageContentType) { this.imageContentType = imageContentType; }
+
+    public Instant getImageUpdatedAt() { return imageUpdatedAt; }
+    public void setImageUpdatedAt(Instant imageUpdatedAt) { this.imageUpdatedAt = imageUpdatedAt; }
+}
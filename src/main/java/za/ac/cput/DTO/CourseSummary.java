@@ -0,0 +1,38 @@
+package za.ac.cput.DTO;
+
+import za.ac.cput.service.CourseMediaService;
+
+// Catalogue view of a course: everything the listing needs, with the image as a URL
+public class CourseSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private String imageUrl;
+    private String imageDigest;
+
+    public CourseSummary() {}
+
+    public CourseSummary(Long id, String title, String description, String imageDigest) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.imageDigest = imageDigest;
+        this.imageUrl = CourseMediaService.imageUrl(id, imageDigest);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getImageDigest() { return imageDigest; }
+    public void setImageDigest(String imageDigest) { this.imageDigest = imageDigest; }
+}
@@ -1,5 +1,7 @@
 package za.ac.cput.DTO;
 
+import za.ac.cput.domain.Enrollment;
+
 import java.time.LocalDateTime;
 
 public class EnrollmentDTO {
@@ -22,6 +24,13 @@ public class EnrollmentDTO {
         this.enrollmentDate = enrollmentDate;
     }
 
+    // Used by the JPQL constructor projections in EnrollmentRepository
+    public EnrollmentDTO(Long id, String studentFirstName, String studentLastName,
+                         String courseTitle, Enrollment.Status status, LocalDateTime enrollmentDate) {
+        this(id, studentFirstName, studentLastName, courseTitle,
+                status == null ? null : status.name(), enrollmentDate);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
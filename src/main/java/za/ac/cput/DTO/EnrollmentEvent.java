@@ -0,0 +1,72 @@
+package za.ac.cput.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import za.ac.cput.domain.Enrollment;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+
+// Compact change notification pushed over /api/enrollments/events. Bulk events carry a
+// count instead of an enrollment and student and only reach admins in full; the students
+// they touched are listed (not serialized) so each of them can be told to refetch.
+public class EnrollmentEvent {
+
+    public enum Type {
+        CREATED,
+        APPROVED,
+        REJECTED,
+        RESET,
+        WAITLISTED,
+        UPDATED,
+        DELETED,
+        BULK_CREATED,
+        BULK_STATUS
+    }
+
+    private long id;
+    private final Type type;
+    private final Long enrollmentId;
+    private final Long studentId;
+    private final Long courseId;
+    private final String status;
+    private final Integer count;
+    private final Set<Long> studentIds;
+    private final Instant at;
+
+    public EnrollmentEvent(Type type, Long enrollmentId, Long studentId, Long courseId,
+                           Enrollment.Status status, Integer count, Collection<Long> studentIds) {
+        this.type = type;
+        this.enrollmentId = enrollmentId;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.status = status == null ? null : status.name();
+        this.count = count;
+        this.studentIds = studentIds == null ? Set.of() : Set.copyOf(studentIds);
+        this.at = Instant.now();
+    }
+
+    public static EnrollmentEvent single(Type type, Long enrollmentId, Long studentId, Long courseId,
+                                         Enrollment.Status status) {
+        return new EnrollmentEvent(type, enrollmentId, studentId, courseId, status, null, null);
+    }
+
+    public static EnrollmentEvent bulk(Type type, Long courseId, Enrollment.Status status, int count,
+                                       Collection<Long> studentIds) {
+        return new EnrollmentEvent(type, null, null, courseId, status, count, studentIds);
+    }
+
+    // Sequence number assigned by the broadcaster once the change has committed
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public Type getType() { return type; }
+    public Long getEnrollmentId() { return enrollmentId; }
+    public Long getStudentId() { return studentId; }
+    public Long getCourseId() { return courseId; }
+    public String getStatus() { return status; }
+    public Integer getCount() { return count; }
+    @JsonIgnore
+    public Set<Long> getStudentIds() { return studentIds; }
+    public Instant getAt() { return at; }
+}
@@ -0,0 +1,24 @@
+package za.ac.cput.DTO;
+
+// Profile fields of a User or Admin, loaded as a projection so the password hash is never read
+public class ProfileDTO {
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String role;
+
+    public ProfileDTO(Long id, String firstName, String lastName, String email, String role) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.role = role;
+    }
+
+    public Long getId() { return id; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+}
@@ -0,0 +1,10 @@
+package za.ac.cput.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
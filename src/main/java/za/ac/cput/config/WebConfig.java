@@ -3,15 +3,29 @@ package za.ac.cput.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import za.ac.cput.filter.UploadLimitInterceptor;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final UploadLimitInterceptor uploadLimitInterceptor;
+
+    public WebConfig(UploadLimitInterceptor uploadLimitInterceptor) {
+        this.uploadLimitInterceptor = uploadLimitInterceptor;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(uploadLimitInterceptor)
+                .addPathPatterns("/courses/create", "/courses/update");
+    }
 }
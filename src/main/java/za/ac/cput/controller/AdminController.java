@@ -1,19 +1,30 @@
 package za.ac.cput.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import za.ac.cput.DTO.ProfileDTO;
 import za.ac.cput.domain.Admin;
+import za.ac.cput.domain.RefreshToken;
 import za.ac.cput.factory.AdminFactory;
 import za.ac.cput.repository.AdminRepository;
 import za.ac.cput.service.AdminService;
+import za.ac.cput.service.PasswordHashingService;
+import za.ac.cput.service.ProfileCache;
+import za.ac.cput.service.RefreshTokenService;
+import za.ac.cput.storage.MediaCache;
 import za.ac.cput.util.JwtUtil;
+import za.ac.cput.util.AuthenticatedUser;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
 @RestController
@@ -24,38 +35,52 @@ public class AdminController {
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PasswordHashingService passwordHashing;
+    private final RefreshTokenService refreshTokenService;
+    private final ProfileCache profileCache;
+    private final MediaCache mediaCache;
 
     @Autowired
     public AdminController(AdminService adminService, AdminRepository adminRepository,
-                           PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+                           PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                           PasswordHashingService passwordHashing, RefreshTokenService refreshTokenService,
+                           ProfileCache profileCache, MediaCache mediaCache) {
         this.adminService = adminService;
         this.adminRepository = adminRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.passwordHashing = passwordHashing;
+        this.refreshTokenService = refreshTokenService;
+        this.profileCache = profileCache;
+        this.mediaCache = mediaCache;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Admin adminInput) {
-        try {
-            // Check if admin already exists
-            Admin existingAdmin = adminRepository.findByEmail(adminInput.getEmail());
-            if (existingAdmin != null) {
-                return ResponseEntity.badRequest().body("Admin with this email already exists");
-            }
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody Admin adminInput) {
+        // Check if admin already exists
+        Admin existingAdmin = adminRepository.findByEmail(adminInput.getEmail());
+        if (existingAdmin != null) {
+            return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                    ResponseEntity.badRequest().body("Admin with this email already exists"));
+        }
 
-            // Build admin with encrypted password
-            Admin newAdmin = AdminFactory.buildAdmin(
-                    adminInput.getFirstName(),
-                    adminInput.getLastName(),
-                    adminInput.getEmail(),
-                    adminInput.getPassword(),
-                    passwordEncoder
-            );
-
-            if (newAdmin == null) {
-                return ResponseEntity.badRequest().body("Invalid input fields");
-            }
+        // Build admin with encrypted password, on the hashing pool
+        return passwordHashing.submit(() -> AdminFactory.buildAdmin(
+                        adminInput.getFirstName(),
+                        adminInput.getLastName(),
+                        adminInput.getEmail(),
+                        adminInput.getPassword(),
+                        passwordEncoder
+                ))
+                .thenApply(this::registered)
+                .exceptionally(e -> hashingFailed(e, "Registration error: "));
+    }
 
+    private ResponseEntity<?> registered(Admin newAdmin) {
+        if (newAdmin == null) {
+            return ResponseEntity.badRequest().body("Invalid input fields");
+        }
+        try {
             Admin saved = adminService.create(newAdmin);
 
             // Remove password from response
@@ -78,15 +103,28 @@ public class AdminController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> handleLogin(@RequestBody Admin loginInput) {
-        try {
-            Admin admin = adminRepository.findByEmail(loginInput.getEmail());
+    public CompletableFuture<ResponseEntity<?>> handleLogin(@RequestBody Admin loginInput) {
+        Admin admin = adminRepository.findByEmail(loginInput.getEmail());
+        if (admin == null) {
+            return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password"));
+        }
 
-            if (admin == null || !passwordEncoder.matches(loginInput.getPassword(), admin.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid email or password");
-            }
+        String storedHash = admin.getPassword();
+        return passwordHashing.matches(loginInput.getPassword(), storedHash)
+                .<ResponseEntity<?>>thenApply(matched -> {
+                    if (!matched) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password");
+                    }
+                    passwordHashing.upgradeIfNeeded(loginInput.getPassword(), storedHash,
+                            newHash -> adminRepository.upgradePassword(admin.getId(), storedHash, newHash));
+                    return loggedIn(admin);
+                })
+                .exceptionally(e -> hashingFailed(e, "Login error: "));
+    }
 
+    private ResponseEntity<?> loggedIn(Admin admin) {
+        try {
             // Generate JWT token
             String token = jwtUtil.generateToken(admin.getEmail(), admin.getRole(), admin.getId());
 
@@ -98,6 +136,8 @@ public class AdminController {
             response.put("lastName", admin.getLastName());
             response.put("email", admin.getEmail());
             response.put("role", admin.getRole());
+            response.put("refreshToken", refreshTokenService.issue(RefreshToken.AccountType.ADMIN, admin.getId()));
+            response.put("expiresIn", jwtUtil.getExpirationMillis() / 1000);
             response.put("message", "Login successful");
 
             return ResponseEntity.ok(response);
@@ -108,6 +148,32 @@ public class AdminController {
         }
     }
 
+    // 503 when the hashing pool is saturated, so clients back off instead of timing out
+    private ResponseEntity<?> hashingFailed(Throwable e, String prefix) {
+        if (PasswordHashingService.isSaturated(e)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many sign-in requests, please retry shortly");
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(prefix + cause.getMessage());
+    }
+
+    // Queue wait and hash timings for the password-hashing pool
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<Map<String, Object>> passwordHashingStats() {
+        return ResponseEntity.ok(passwordHashing.getStats());
+    }
+
+    // Hit rate and occupancy of the in-memory course image cache
+    @GetMapping("/media-cache/stats")
+    public ResponseEntity<Map<String, Object>> mediaCacheStats() {
+        return ResponseEntity.ok(mediaCache.stats());
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<Admin>> getAll() {
         List<Admin> admins = adminService.getAll();
@@ -131,7 +197,8 @@ public class AdminController {
     public ResponseEntity<?> update(@RequestBody Admin admin) {
         try {
             // If password is being updated, encrypt it
-            if (admin.getPassword() != null && !admin.getPassword().isEmpty()) {
+            boolean passwordChanged = admin.getPassword() != null && !admin.getPassword().isEmpty();
+            if (passwordChanged) {
                 String encryptedPassword = passwordEncoder.encode(admin.getPassword());
                 admin.setPassword(encryptedPassword);
             } else {
@@ -146,6 +213,11 @@ public class AdminController {
             if (updated == null) {
                 return ResponseEntity.notFound().build();
             }
+            profileCache.evictAdmin(updated.getId());
+            if (passwordChanged) {
+                // Sign out every other session
+                refreshTokenService.revokeAll(RefreshToken.AccountType.ADMIN, updated.getId());
+            }
             // Remove password from response
             updated.setPassword(null);
             return ResponseEntity.ok(updated);
@@ -159,6 +231,7 @@ public class AdminController {
     public ResponseEntity<?> delete(@PathVariable Long id) {
         try {
             boolean deleted = adminService.delete(id);
+            profileCache.evictAdmin(id);
             if (!deleted) {
                 return ResponseEntity.notFound().build();
             }
@@ -175,28 +248,17 @@ public class AdminController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
-        try {
-            String jwt = token.substring(7); // Remove "Bearer " prefix
-            String email = jwtUtil.extractEmail(jwt);
-            String role = jwtUtil.extractRole(jwt);
-            Long userId = jwtUtil.extractUserId(jwt);
-
-            if (!"ADMIN".equals(role)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-            }
-
-            Admin admin = adminService.read(userId);
-            if (admin == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // Remove password from response
-            admin.setPassword(null);
-            return ResponseEntity.ok(admin);
-
-        } catch (Exception e) {
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
+        if (!principal.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+        }
+        ProfileDTO profile = profileCache.getAdmin(principal.userId());
+        if (profile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(profile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package za.ac.cput.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import za.ac.cput.DTO.RefreshTokenRequest;
+import za.ac.cput.domain.Admin;
+import za.ac.cput.domain.RefreshToken;
+import za.ac.cput.domain.User;
+import za.ac.cput.repository.AdminRepository;
+import za.ac.cput.repository.UserRepository;
+import za.ac.cput.service.RefreshTokenService;
+import za.ac.cput.service.TokenRevocationList;
+import za.ac.cput.util.JwtUtil;
+import za.ac.cput.util.VerifiedClaims;
+import za.ac.cput.util.VerifiedClaimsCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final VerifiedClaimsCache claimsCache;
+    private final UserRepository userRepository;
+    private final AdminRepository adminRepository;
+    private final JwtUtil jwtUtil;
+
+    public AuthController(RefreshTokenService refreshTokenService, TokenRevocationList revocationList,
+                          VerifiedClaimsCache claimsCache, UserRepository userRepository,
+                          AdminRepository adminRepository, JwtUtil jwtUtil) {
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.claimsCache = claimsCache;
+        this.userRepository = userRepository;
+        this.adminRepository = adminRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // Exchanges a refresh token for a new access token and a new refresh token. The account
+    // is re-read, so role changes and deletions take effect at the next refresh.
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+            String email;
+            String role;
+            if (rotation.accountType() == RefreshToken.AccountType.ADMIN) {
+                Admin admin = adminRepository.findById(rotation.accountId()).orElse(null);
+                if (admin == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Account no longer exists");
+                }
+                email = admin.getEmail();
+                role = admin.getRole();
+            } else {
+                User user = userRepository.findById(rotation.accountId()).orElse(null);
+                if (user == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Account no longer exists");
+                }
+                email = user.getEmail();
+                role = user.getRole();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("token", jwtUtil.generateToken(email, role, rotation.accountId()));
+            response.put("refreshToken", rotation.refreshToken());
+            response.put("expiresIn", jwtUtil.getExpirationMillis() / 1000);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Refresh error: " + e.getMessage());
+        }
+    }
+
+    // Revokes the presented access token immediately and, if given, the session's refresh tokens
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        try {
+            String jwt = authHeader.substring(7); // Remove "Bearer " prefix
+            VerifiedClaims claims = jwtUtil.verify(jwt);
+            revocationList.revoke(claims.tokenId(), claims.expiresAt());
+            claimsCache.invalidate(jwt);
+
+            if (request != null) {
+                refreshTokenService.revoke(request.getRefreshToken());
+            }
+            return ResponseEntity.noContent().build();
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package za.ac.cput.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import za.ac.cput.DTO.CourseMediaDTO;
 import za.ac.cput.domain.Course;
 import za.ac.cput.factory.CourseFactory;
+import za.ac.cput.service.CourseMediaService;
 import za.ac.cput.service.CourseService;
+import za.ac.cput.service.ImageVariantService;
+import za.ac.cput.storage.ImageUploadValidator;
+import za.ac.cput.storage.MediaCache;
+import za.ac.cput.storage.MediaStore;
+import za.ac.cput.storage.MediaStreamer;
+import za.ac.cput.storage.StoredMedia;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
 @RestController
@@ -20,10 +37,25 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseMediaService courseMediaService;
+    private final MediaStore mediaStore;
+    private final MediaStreamer mediaStreamer;
+    private final ImageVariantService imageVariantService;
+    private final MediaCache mediaCache;
+    private final long maxImageBytes;
 
     @Autowired
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, CourseMediaService courseMediaService,
+                            MediaStore mediaStore, MediaStreamer mediaStreamer,
+                            ImageVariantService imageVariantService, MediaCache mediaCache,
+                            @Value("${media.upload.max-bytes:5242880}") long maxImageBytes) {
         this.courseService = courseService;
+        this.courseMediaService = courseMediaService;
+        this.mediaStore = mediaStore;
+        this.mediaStreamer = mediaStreamer;
+        this.imageVariantService = imageVariantService;
+        this.mediaCache = mediaCache;
+        this.maxImageBytes = maxImageBytes;
     }
 
     @PostMapping(value = "/create", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -42,21 +74,11 @@ public class CourseController {
                 return ResponseEntity.badRequest().body("Image file is required.");
             }
 
-            // Validate file type
-            String contentType = imageFile.getContentType();
-            if (contentType == null || (!contentType.equals("image/jpeg") && !contentType.equals("image/png") && !contentType.equals("image/jpg"))) {
-                return ResponseEntity.badRequest().body("Only JPEG and PNG images are allowed.");
-            }
-
-            // Validate file size (max 5MB)
-            if (imageFile.getSize() > 5 * 1024 * 1024) {
-                return ResponseEntity.badRequest().body("Image size must be less than 5MB.");
-            }
+            StoredMedia image = storeImage(imageFile);
+            System.out.println("Image stored: " + image.getDigest() + " (" + image.getSize() + " bytes)");
 
-            byte[] imageBytes = imageFile.getBytes();
-            System.out.println("Image bytes length: " + imageBytes.length);
-
-            Course course = CourseFactory.buildCourse(title, description, imageBytes);
+            Course course = CourseFactory.buildCourse(title, description, image);
+            // A blob left unreferenced by a failure here is removed by the orphan sweep
             if (course == null) {
                 return ResponseEntity.badRequest().body("Invalid input fields");
             }
@@ -66,6 +88,8 @@ public class CourseController {
 
             return ResponseEntity.ok(saved);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             System.err.println("Image processing error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -77,15 +101,28 @@ public class CourseController {
         }
     }
 
+    // Streams the part into the MediaStore through a fixed-size buffer; type and size are
+    // checked against the bytes themselves, not the client's headers
+    private StoredMedia storeImage(MultipartFile imageFile) throws IOException {
+        if (imageFile.getSize() > maxImageBytes) {
+            throw new IllegalArgumentException("Image size must be less than " + (maxImageBytes / (1024 * 1024)) + "MB.");
+        }
+        try (InputStream in = ImageUploadValidator.open(imageFile.getInputStream(), maxImageBytes)) {
+            return mediaStore.store(in);
+        }
+    }
+
+    // Summaries by default; ?full=true returns the complete entities
     @GetMapping("/all")
-    public List<Course> getAll() {
-        return courseService.getAll();
+    public List<?> getAll(@RequestParam(value = "full", defaultValue = "false") boolean full) {
+        return full ? courseService.getAll() : courseService.getAllSummaries();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable Long id) {
+    public ResponseEntity<?> get(@PathVariable Long id,
+                                 @RequestParam(value = "full", defaultValue = "false") boolean full) {
         try {
-            Course course = courseService.read(id);
+            Object course = full ? courseService.read(id) : courseService.readSummary(id);
             if (course == null) return ResponseEntity.notFound().build();
             return ResponseEntity.ok(course);
         } catch (Exception e) {
@@ -111,32 +148,20 @@ public class CourseController {
                 return ResponseEntity.notFound().build();
             }
 
-            byte[] imageBytes = null;
+            StoredMedia image = null;
             if (imageFile != null && !imageFile.isEmpty()) {
-                // Validate file type
-                String contentType = imageFile.getContentType();
-                if (contentType == null || (!contentType.equals("image/jpeg") && !contentType.equals("image/png") && !contentType.equals("image/jpg"))) {
-                    return ResponseEntity.badRequest().body("Only JPEG and PNG images are allowed.");
-                }
-
-                // Validate file size (max 5MB)
-                if (imageFile.getSize() > 5 * 1024 * 1024) {
-                    return ResponseEntity.badRequest().body("Image size must be less than 5MB.");
-                }
-
-                imageBytes = imageFile.getBytes();
-                System.out.println("New image bytes length: " + imageBytes.length);
+                image = storeImage(imageFile);
+                System.out.println("New image stored: " + image.getDigest() + " (" + image.getSize() + " bytes)");
             } else {
                 // Keep existing image
-                imageBytes = existing.getImage();
-                System.out.println("Keeping existing image, length: " + (imageBytes != null ? imageBytes.length : 0));
+                System.out.println("Keeping existing image: " + existing.getImageDigest());
             }
 
             // Use existing values if no new values are provided
             String updatedTitle = (title != null && !title.trim().isEmpty()) ? title : existing.getTitle();
             String updatedDescription = (description != null && !description.trim().isEmpty()) ? description : existing.getDescription();
 
-            Course updatedCourse = courseService.updateWithImage(id, updatedTitle, updatedDescription, imageBytes);
+            Course updatedCourse = courseService.updateWithImage(id, updatedTitle, updatedDescription, image);
 
             if (updatedCourse == null) {
                 return ResponseEntity.badRequest().body("Failed to update course");
@@ -145,6 +170,8 @@ public class CourseController {
             System.out.println("Course updated successfully: " + updatedCourse.getId());
             return ResponseEntity.ok(updatedCourse);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             System.err.println("Image processing error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -156,6 +183,21 @@ public class CourseController {
         }
     }
 
+    // Body: {"capacity": 30}, or {"capacity": null} for unlimited
+    @PutMapping("/{id}/capacity")
+    public ResponseEntity<?> setCapacity(@PathVariable Long id, @RequestBody Map<String, Integer> request) {
+        try {
+            courseService.setCapacity(id, request.get("capacity"));
+            return ResponseEntity.ok(courseService.read(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Course capacity error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to update course capacity: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id) {
         try {
@@ -173,37 +215,123 @@ public class CourseController {
     }
 
     @GetMapping("/media/{id}")
-    public ResponseEntity<byte[]> getFile(@PathVariable Long id) {
+    public void getFile(@PathVariable Long id,
+                        @RequestParam(value = "w", required = false) Integer width,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Mutable URL: browsers may keep a copy but must revalidate it
+        serveMedia(id, null, width, "no-cache", request, response);
+    }
+
+    @GetMapping("/media/{id}/{digest}")
+    public void getImmutableFile(@PathVariable Long id, @PathVariable String digest,
+                                 @RequestParam(value = "w", required = false) Integer width,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serveMedia(id, digest, width, "public, max-age=31536000, immutable", request, response);
+    }
+
+    private void serveMedia(Long id, String expectedDigest, Integer width, String cacheControl,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            Course course = courseService.read(id);
-            if (course == null) return ResponseEntity.notFound().build();
+            CourseMediaDTO media = courseMediaService.find(id);
+            if (media == null || media.getImageDigest() == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
 
-            byte[] file = course.getImage();
-            if (file == null || file.length == 0) {
-                return ResponseEntity.notFound().build();
+            if (expectedDigest != null && !expectedDigest.equals(media.getImageDigest())) {
+                // The image was replaced since this URL was handed out
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+                String location = CourseMediaService.imageUrl(id, media.getImageDigest());
+                if (width != null) location += "?w=" + width;
+                response.sendRedirect(request.getContextPath() + location);
+                return;
             }
 
-            HttpHeaders headers = new HttpHeaders();
+            String contentType = media.getImageContentType() != null
+                    ? media.getImageContentType()
+                    : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+            // Resized rendition when one is ready, otherwise fall through to the original
+            ImageVariantService.Variant variant = imageVariantService.select(media.getImageDigest(), contentType, width);
+            if (variant != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                String variantEtag = CourseMediaService.etag(media.getImageDigest() + "-" + variant.getName());
+                long variantModified = Files.getLastModifiedTime(variant.getFile()).toMillis();
+                if (new ServletWebRequest(request, response).checkNotModified(variantEtag, variantModified)) {
+                    return;
+                }
+                String key = MediaCache.key(id, media.getImageDigest(), variant.getName());
+                streamFile(key, variant::getFile, null, contentType, variantEtag, variantModified, request, response);
+                return;
+            }
 
-            // Detect image type
-            if (file.length > 4 && file[0] == (byte)0xFF && file[1] == (byte)0xD8) {
-                headers.setContentType(MediaType.IMAGE_JPEG);
-            } else if (file.length > 4 && file[0] == (byte)0x89 && file[1] == (byte)0x50) {
-                headers.setContentType(MediaType.IMAGE_PNG);
-            } else {
-                headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            if (width != null) {
+                // Stand-in for a variant that may appear later, so don't let it be cached for good
+                cacheControl = "no-cache";
             }
 
-            return new ResponseEntity<>(file, headers, HttpStatus.OK);
+            String etag = CourseMediaService.etag(media.getImageDigest());
+            long lastModified = media.getImageUpdatedAt() != null ? media.getImageUpdatedAt().toEpochMilli() : -1;
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+            // Answers If-None-Match / If-Modified-Since with 304 before any file is touched
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                return;
+            }
+
+            String key = MediaCache.key(id, media.getImageDigest(), null);
+            streamFile(key, () -> mediaStore.locate(media.getImageDigest()), media.getImageSize(),
+                    contentType, etag, lastModified, request, response);
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            System.err.println("Error serving course media: " + e.getMessage());
+            if (!response.isCommitted()) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    // Locates the file only on a cache miss, so hits never touch the disk
+    private interface FileLocator {
+        Path locate() throws IOException;
+    }
+
+    private void streamFile(String key, FileLocator locator, Long knownLength, String contentType, String etag,
+                            long lastModified, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ByteBuffer cached = mediaCache.get(key);
+        if (cached != null) {
+            mediaStreamer.serve(request, response, cached, contentType, etag, lastModified);
+            return;
+        }
+
+        Path file = locator.locate();
+        if (file == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = knownLength != null ? knownLength : Files.size(file);
+        ByteBuffer admitted = mediaCache.admit(key, file, length);
+        if (admitted != null) {
+            mediaStreamer.serve(request, response, admitted, contentType, etag, lastModified);
+        } else {
+            mediaStreamer.serve(request, response, file, length, contentType, etag, lastModified);
         }
     }
 
     @GetMapping("/search")
-    public ResponseEntity<?> searchCourses(@RequestParam String keyword) {
+    public ResponseEntity<?> searchCourses(@RequestParam String keyword,
+                                           @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                           @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                           @RequestParam(value = "full", defaultValue = "false") boolean full) {
         try {
-            List<Course> courses = courseService.findByTitleContaining(keyword);
+            if (limit < 1 || limit > 100 || offset < 0) {
+                return ResponseEntity.badRequest().body("limit must be between 1 and 100 and offset cannot be negative");
+            }
+            List<?> courses = full
+                    ? courseService.findByTitleContaining(keyword, offset, limit)
+                    : courseService.searchSummaries(keyword, offset, limit);
             return ResponseEntity.ok(courses);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error searching courses: " + e.getMessage());
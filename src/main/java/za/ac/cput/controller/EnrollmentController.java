@@ -1,9 +1,19 @@
 package za.ac.cput.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.ac.cput.DTO.BulkEnrollmentResult;
+import za.ac.cput.DTO.BulkEnrollmentRow;
+import za.ac.cput.DTO.BulkStatusRequest;
+import za.ac.cput.DTO.CourseEnrollmentStatsDTO;
 import za.ac.cput.DTO.EnrollmentDTO;
 import za.ac.cput.DTO.EnrollmentRequest;
 import za.ac.cput.domain.Course;
@@ -12,46 +22,68 @@ import za.ac.cput.domain.User;
 import za.ac.cput.repository.CourseRepository;
 import za.ac.cput.repository.EnrollmentRepository;
 import za.ac.cput.repository.UserRepository;
+import za.ac.cput.search.CourseTitleCatalogue;
+import za.ac.cput.service.BulkEnrollmentService;
+import za.ac.cput.service.EnrollmentArchiver;
+import za.ac.cput.service.EnrollmentEventBroadcaster;
 import za.ac.cput.service.EnrollmentService;
+import za.ac.cput.service.EnrollmentStatsService;
+import za.ac.cput.util.AuthenticatedUser;
+import za.ac.cput.util.LogSampler;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
 @RestController
 @RequestMapping("/api/enrollments")
 public class EnrollmentController {
 
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentController.class);
+
     private final EnrollmentService enrollmentService;
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final EnrollmentStatsService enrollmentStatsService;
+    private final EnrollmentEventBroadcaster eventBroadcaster;
+    private final EnrollmentArchiver enrollmentArchiver;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final CourseTitleCatalogue titleCatalogue;
+    private final LogSampler enrollLogSampler;
 
     @Autowired
     public EnrollmentController(
             EnrollmentService enrollmentService,
+            BulkEnrollmentService bulkEnrollmentService,
+            EnrollmentStatsService enrollmentStatsService,
+            EnrollmentEventBroadcaster eventBroadcaster,
+            EnrollmentArchiver enrollmentArchiver,
             CourseRepository courseRepository,
             UserRepository userRepository,
-            EnrollmentRepository enrollmentRepository
+            EnrollmentRepository enrollmentRepository,
+            CourseTitleCatalogue titleCatalogue,
+            @Value("${enrollment.log.sample-every:100}") long enrollLogSampleEvery
     ) {
         this.enrollmentService = enrollmentService;
+        this.bulkEnrollmentService = bulkEnrollmentService;
+        this.enrollmentStatsService = enrollmentStatsService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.enrollmentArchiver = enrollmentArchiver;
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.enrollmentRepository = enrollmentRepository;
+        this.titleCatalogue = titleCatalogue;
+        this.enrollLogSampler = new LogSampler(enrollLogSampleEvery);
     }
 
     @PostMapping("/enroll")
     public ResponseEntity<?> enrollStudent(@RequestBody EnrollmentRequest request) {
+        long started = System.nanoTime();
         try {
-            System.out.println("=== ENROLLMENT DEBUG START ===");
-            System.out.println("Received enrollment request: " + request);
-            System.out.println("First Name: " + request.getFirstName());
-            System.out.println("Last Name: " + request.getLastName());
-            System.out.println("Course Name: " + request.getCourseName());
-
             // Validate input
             if (request.getFirstName() == null || request.getFirstName().trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("First name is required");
@@ -67,63 +99,33 @@ public class EnrollmentController {
             String lastName = request.getLastName().trim();
             String courseName = request.getCourseName().trim();
 
-            // Find course by title
-            System.out.println("Looking for course: " + courseName);
-            List<Course> allCourses = courseRepository.findAll();
-            System.out.println("All courses in DB: " + allCourses.size());
-            allCourses.forEach(c -> System.out.println(" - " + c.getTitle() + " (ID: " + c.getId() + ")"));
-
+            // Indexed lookups only: course by title, student by name
             Optional<Course> courseOpt = courseRepository.findByTitle(courseName);
             if (courseOpt.isEmpty()) {
-                System.out.println("Course not found: " + courseName);
-                String availableCourses = allCourses.stream()
-                        .map(Course::getTitle)
-                        .collect(Collectors.joining(", "));
+                log.warn("event=enroll outcome=course_not_found course=\"{}\"", courseName);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Course '" + courseName + "' not found. Available courses: " + availableCourses);
+                        .body("Course '" + courseName + "' not found. Available courses: " + titleCatalogue.availableTitles());
             }
             Course course = courseOpt.get();
-            System.out.println("Found course: " + course.getTitle() + " (ID: " + course.getId() + ")");
-
-            // Find user by first and last name
-            System.out.println("Looking for student: " + firstName + " " + lastName);
-            List<User> allUsers = userRepository.findAll();
-            System.out.println("All users in DB: " + allUsers.size());
-            allUsers.forEach(u -> System.out.println(" - " + u.getFirstName() + " " + u.getLastName() + " (ID: " + u.getId() + ")"));
 
             Optional<User> userOpt = userRepository.findByFirstNameAndLastName(firstName, lastName);
             if (userOpt.isEmpty()) {
-                System.out.println("Student not found: " + firstName + " " + lastName);
-                String availableUsers = allUsers.stream()
-                        .map(u -> u.getFirstName() + " " + u.getLastName())
-                        .collect(Collectors.joining(", "));
+                log.warn("event=enroll outcome=student_not_found courseId={}", course.getId());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Student '" + firstName + " " + lastName + "' not found. Available students: " + availableUsers);
+                        .body("Student '" + firstName + " " + lastName + "' not found");
             }
             User student = userOpt.get();
-            System.out.println("Found student: " + student.getFirstName() + " " + student.getLastName() + " (ID: " + student.getId() + ")");
 
-            // Check if already enrolled
-            System.out.println("Checking existing enrollment for student " + student.getId() + " in course " + course.getId());
-            boolean alreadyEnrolled = enrollmentRepository.existsByStudentAndCourse(student, course);
-            System.out.println("Already enrolled: " + alreadyEnrolled);
-
-            if (alreadyEnrolled) {
-                System.out.println("Student already enrolled in this course");
+            // Insert straight away; the unique (student, course) constraint catches duplicates
+            Enrollment savedEnrollment;
+            try {
+                savedEnrollment = enrollmentService.enroll(student, course);
+            } catch (IllegalStateException e) {
+                log.info("event=enroll outcome=duplicate studentId={} courseId={}", student.getId(), course.getId());
                 return ResponseEntity.status(HttpStatus.CONFLICT)
                         .body("You are already enrolled in '" + courseName + "'");
             }
 
-            // Create and save enrollment
-            System.out.println("Creating new enrollment...");
-            Enrollment enrollment = new Enrollment();
-            enrollment.setStudent(student);
-            enrollment.setCourse(course);
-            enrollment.setStatus(Enrollment.Status.PENDING);
-
-            Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
-            System.out.println("Enrollment created successfully with ID: " + savedEnrollment.getId());
-
             // Convert to DTO for response
             EnrollmentDTO enrollmentDTO = enrollmentService.toDTO(savedEnrollment);
 
@@ -133,17 +135,60 @@ public class EnrollmentController {
             response.put("status", savedEnrollment.getStatus().name());
             response.put("enrollment", enrollmentDTO);
 
-            System.out.println("=== ENROLLMENT DEBUG END ===");
+            if (enrollLogSampler.sample()) {
+                log.info("event=enroll outcome=created enrollmentId={} studentId={} courseId={} tookMs={}",
+                        savedEnrollment.getId(), student.getId(), course.getId(),
+                        (System.nanoTime() - started) / 1_000_000);
+            }
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("Enrollment error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("event=enroll outcome=error message=\"{}\"", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Enrollment failed: " + e.getMessage());
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkEnroll(@RequestBody List<BulkEnrollmentRow> rows) {
+        return bulkEnrollRows(rows);
+    }
+
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> bulkEnrollCsv(@RequestBody String csv) {
+        try {
+            return bulkEnrollRows(bulkEnrollmentService.parseCsv(csv));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> bulkEnrollRows(List<BulkEnrollmentRow> rows) {
+        long started = System.nanoTime();
+        try {
+            List<BulkEnrollmentResult> results = bulkEnrollmentService.enroll(rows);
+
+            Map<BulkEnrollmentResult.Outcome, Long> summary = new EnumMap<>(BulkEnrollmentResult.Outcome.class);
+            for (BulkEnrollmentResult result : results) {
+                summary.merge(result.getOutcome(), 1L, Long::sum);
+            }
+            log.info("event=bulk_enroll rows={} created={} tookMs={}", results.size(),
+                    summary.getOrDefault(BulkEnrollmentResult.Outcome.CREATED, 0L),
+                    (System.nanoTime() - started) / 1_000_000);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("summary", summary);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("event=bulk_enroll outcome=error message=\"{}\"", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Bulk enrollment failed: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<EnrollmentDTO> getEnrollment(@PathVariable Long id) {
         try {
@@ -158,9 +203,10 @@ public class EnrollmentController {
     }
 
     @GetMapping
-    public ResponseEntity<List<EnrollmentDTO>> getAllEnrollments() {
+    public ResponseEntity<List<EnrollmentDTO>> getAllEnrollments(
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            List<EnrollmentDTO> enrollments = enrollmentService.getAllDTOs();
+            List<EnrollmentDTO> enrollments = enrollmentService.getAllDTOs(includeArchived);
             return ResponseEntity.ok(enrollments);
         } catch (Exception e) {
             System.err.println("Error getting all enrollments: " + e.getMessage());
@@ -169,9 +215,11 @@ public class EnrollmentController {
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStudent(
+            @PathVariable Long studentId,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByStudentDTO(studentId);
+            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByStudentDTO(studentId, includeArchived);
             return ResponseEntity.ok(enrollments);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
@@ -182,9 +230,11 @@ public class EnrollmentController {
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByCourse(
+            @PathVariable Long courseId,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByCourseDTO(courseId);
+            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByCourseDTO(courseId, includeArchived);
             return ResponseEntity.ok(enrollments);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
@@ -195,7 +245,9 @@ public class EnrollmentController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStatus(@PathVariable String status) {
+    public ResponseEntity<List<EnrollmentDTO>> getEnrollmentsByStatus(
+            @PathVariable String status,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
             Enrollment.Status statusEnum;
             try {
@@ -204,7 +256,7 @@ public class EnrollmentController {
                 return ResponseEntity.badRequest().build();
             }
 
-            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByStatusDTO(statusEnum);
+            List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByStatusDTO(statusEnum, includeArchived);
             return ResponseEntity.ok(enrollments);
         } catch (Exception e) {
             System.err.println("Error getting enrollments by status: " + e.getMessage());
@@ -212,6 +264,101 @@ public class EnrollmentController {
         }
     }
 
+    // Server-sent events for enrollment changes; resumes from the Last-Event-ID header
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean admin = principal.isAdmin();
+        Long userId = principal.userId();
+
+        Long resumeFrom = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(eventBroadcaster.subscribe(userId, admin, resumeFrom));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(@RequestParam(value = "detail", defaultValue = "false") boolean detail) {
+        try {
+            List<CourseEnrollmentStatsDTO> courses = enrollmentStatsService.getAll();
+            long pending = 0, approved = 0, rejected = 0, waitlisted = 0;
+            for (CourseEnrollmentStatsDTO course : courses) {
+                pending += course.getPending();
+                approved += course.getApproved();
+                rejected += course.getRejected();
+                waitlisted += course.getWaitlisted();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("totals", new CourseEnrollmentStatsDTO(null, null, pending, approved, rejected, waitlisted));
+            if (detail) {
+                response.put("courses", courses);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("event=enrollment_stats outcome=error message=\"{}\"", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stats/course/{courseId}")
+    public ResponseEntity<?> getCourseStats(@PathVariable Long courseId) {
+        try {
+            return ResponseEntity.ok(enrollmentStatsService.getForCourse(courseId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("event=enrollment_stats outcome=error courseId={} message=\"{}\"", courseId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Runs the archival job now instead of waiting for its schedule
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runArchive() {
+        try {
+            int archived = enrollmentArchiver.archive();
+            log.info("event=enrollment_archive archived={}", archived);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", archived + " enrollment(s) archived");
+            response.put("archived", archived);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("event=enrollment_archive outcome=error message=\"{}\"", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error archiving enrollments: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildStats() {
+        try {
+            int courses = enrollmentStatsService.rebuild();
+            log.info("event=enrollment_stats_rebuild courses={}", courses);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Enrollment counters rebuilt");
+            response.put("courses", courses);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("event=enrollment_stats_rebuild outcome=error message=\"{}\"", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error rebuilding enrollment counters: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/approve")
     public ResponseEntity<?> approveEnrollment(@PathVariable Long id) {
         try {
@@ -219,12 +366,16 @@ public class EnrollmentController {
             EnrollmentDTO dto = enrollmentService.toDTO(approved);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("message", "Enrollment approved successfully");
+            response.put("message", approved.getStatus() == Enrollment.Status.WAITLISTED
+                    ? "Course is full, enrollment added to the waitlist"
+                    : "Enrollment approved successfully");
             response.put("enrollment", dto);
 
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Error approving enrollment: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -245,6 +396,8 @@ public class EnrollmentController {
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Error rejecting enrollment: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -265,6 +418,8 @@ public class EnrollmentController {
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Error resetting enrollment: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -280,26 +435,24 @@ public class EnrollmentController {
                 return ResponseEntity.badRequest().body("Status is required");
             }
 
-            Enrollment enrollment = enrollmentRepository.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + id));
+            Enrollment.Status statusEnum = parseStatus(newStatus);
+            if (statusEnum == null) {
+                return ResponseEntity.badRequest().body("Invalid status: " + newStatus + ". Valid statuses: PENDING, APPROVED, REJECTED, WAITLISTED");
+            }
 
-            try {
-                Enrollment.Status statusEnum = Enrollment.Status.valueOf(newStatus.toUpperCase());
-                enrollment.setStatus(statusEnum);
-                Enrollment updated = enrollmentRepository.save(enrollment);
-                EnrollmentDTO dto = enrollmentService.toDTO(updated);
+            Enrollment updated = enrollmentService.changeStatus(id, statusEnum);
+            EnrollmentDTO dto = enrollmentService.toDTO(updated);
 
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Enrollment status updated to " + newStatus + " successfully");
-                response.put("enrollment", dto);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Enrollment status updated to " + newStatus + " successfully");
+            response.put("enrollment", dto);
 
-                return ResponseEntity.ok(response);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().body("Invalid status: " + newStatus + ". Valid statuses: PENDING, APPROVED, REJECTED");
-            }
+            return ResponseEntity.ok(response);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             System.err.println("Error updating enrollment status: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -307,6 +460,53 @@ public class EnrollmentController {
         }
     }
 
+    @PutMapping("/bulk/status")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            Enrollment.Status status = parseStatus(request.getStatus());
+            if (status == null) {
+                return ResponseEntity.badRequest().body("Invalid status: " + request.getStatus() + ". Valid statuses: PENDING, APPROVED, REJECTED, WAITLISTED");
+            }
+
+            int updated;
+            if (request.getIds() != null && !request.getIds().isEmpty()) {
+                updated = enrollmentService.updateStatuses(request.getIds(), status);
+            } else {
+                Enrollment.Status currentStatus = null;
+                if (request.getCurrentStatus() != null) {
+                    currentStatus = parseStatus(request.getCurrentStatus());
+                    if (currentStatus == null) {
+                        return ResponseEntity.badRequest().body("Invalid currentStatus: " + request.getCurrentStatus());
+                    }
+                }
+                updated = enrollmentService.updateStatuses(status, request.getCourseId(), currentStatus, request.getEnrolledBefore());
+            }
+            log.info("event=bulk_status status={} updated={}", status, updated);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", updated + " enrollment(s) set to " + status.name());
+            response.put("updated", updated);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("event=bulk_status outcome=error message=\"{}\"", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error updating enrollment statuses: " + e.getMessage());
+        }
+    }
+
+    private static Enrollment.Status parseStatus(String status) {
+        if (status == null) return null;
+        try {
+            return Enrollment.Status.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEnrollment(@PathVariable Long id) {
         try {
@@ -1,19 +1,29 @@
 package za.ac.cput.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import za.ac.cput.DTO.ProfileDTO;
+import za.ac.cput.domain.RefreshToken;
 import za.ac.cput.domain.User;
 import za.ac.cput.factory.UserFactory;
 import za.ac.cput.repository.UserRepository;
+import za.ac.cput.service.PasswordHashingService;
+import za.ac.cput.service.ProfileCache;
+import za.ac.cput.service.RefreshTokenService;
 import za.ac.cput.service.UserService;
+import za.ac.cput.util.AuthenticatedUser;
 import za.ac.cput.util.JwtUtil;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 @RestController
@@ -24,37 +34,50 @@ public class UserController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PasswordHashingService passwordHashing;
+    private final RefreshTokenService refreshTokenService;
+    private final ProfileCache profileCache;
 
     @Autowired
     public UserController(UserService userService, UserRepository userRepository,
-                          PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+                          PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                          PasswordHashingService passwordHashing, RefreshTokenService refreshTokenService,
+                          ProfileCache profileCache) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.passwordHashing = passwordHashing;
+        this.refreshTokenService = refreshTokenService;
+        this.profileCache = profileCache;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User userInput) {
-        try {
-            // Check if user already exists
-            User existingUser = userRepository.findByEmail(userInput.getEmail());
-            if (existingUser != null) {
-                return ResponseEntity.badRequest().body("User with this email already exists");
-            }
-
-            User newUser = UserFactory.buildUser(
-                    userInput.getFirstName(),
-                    userInput.getLastName(),
-                    userInput.getEmail(),
-                    userInput.getPassword(),
-                    passwordEncoder
-            );
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User userInput) {
+        // Check if user already exists
+        User existingUser = userRepository.findByEmail(userInput.getEmail());
+        if (existingUser != null) {
+            return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                    ResponseEntity.badRequest().body("User with this email already exists"));
+        }
 
-            if (newUser == null) {
-                return ResponseEntity.badRequest().body("Invalid input fields");
-            }
+        // The factory hashes the password, so it runs on the hashing pool
+        return passwordHashing.submit(() -> UserFactory.buildUser(
+                        userInput.getFirstName(),
+                        userInput.getLastName(),
+                        userInput.getEmail(),
+                        userInput.getPassword(),
+                        passwordEncoder
+                ))
+                .thenApply(this::registered)
+                .exceptionally(e -> hashingFailed(e, "Registration error: "));
+    }
 
+    private ResponseEntity<?> registered(User newUser) {
+        if (newUser == null) {
+            return ResponseEntity.badRequest().body("Invalid input fields");
+        }
+        try {
             User saved = userService.create(newUser);
 
             // Return response without password
@@ -75,15 +98,28 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> handleLogin(@RequestBody User loginInput) {
-        try {
-            User user = userRepository.findByEmail(loginInput.getEmail());
+    public CompletableFuture<ResponseEntity<?>> handleLogin(@RequestBody User loginInput) {
+        User user = userRepository.findByEmail(loginInput.getEmail());
+        if (user == null) {
+            return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password"));
+        }
 
-            if (user == null || !passwordEncoder.matches(loginInput.getPassword(), user.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid email or password");
-            }
+        String storedHash = user.getPassword();
+        return passwordHashing.matches(loginInput.getPassword(), storedHash)
+                .<ResponseEntity<?>>thenApply(matched -> {
+                    if (!matched) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password");
+                    }
+                    passwordHashing.upgradeIfNeeded(loginInput.getPassword(), storedHash,
+                            newHash -> userRepository.upgradePassword(user.getId(), storedHash, newHash));
+                    return loggedIn(user);
+                })
+                .exceptionally(e -> hashingFailed(e, "Login error: "));
+    }
 
+    private ResponseEntity<?> loggedIn(User user) {
+        try {
             // Generate JWT token
             String token = jwtUtil.generateToken(user.getEmail(), user.getRole(), user.getId());
 
@@ -95,6 +131,8 @@ public class UserController {
             response.put("lastName", user.getLastName());
             response.put("email", user.getEmail());
             response.put("role", user.getRole());
+            response.put("refreshToken", refreshTokenService.issue(RefreshToken.AccountType.USER, user.getId()));
+            response.put("expiresIn", jwtUtil.getExpirationMillis() / 1000);
             response.put("message", "Login successful");
 
             return ResponseEntity.ok(response);
@@ -105,6 +143,20 @@ public class UserController {
         }
     }
 
+    // 503 when the hashing pool is saturated, so clients back off instead of timing out
+    private ResponseEntity<?> hashingFailed(Throwable e, String prefix) {
+        if (PasswordHashingService.isSaturated(e)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many sign-in requests, please retry shortly");
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(prefix + cause.getMessage());
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<User>> getAll() {
         List<User> users = userService.getAll();
@@ -128,7 +180,8 @@ public class UserController {
     public ResponseEntity<?> update(@RequestBody User user) {
         try {
             // If password is being updated, encrypt it
-            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            boolean passwordChanged = user.getPassword() != null && !user.getPassword().isEmpty();
+            if (passwordChanged) {
                 String encryptedPassword = passwordEncoder.encode(user.getPassword());
                 user.setPassword(encryptedPassword);
             } else {
@@ -143,6 +196,11 @@ public class UserController {
             if (updated == null) {
                 return ResponseEntity.notFound().build();
             }
+            profileCache.evictUser(updated.getId());
+            if (passwordChanged) {
+                // Sign out every other session
+                refreshTokenService.revokeAll(RefreshToken.AccountType.USER, updated.getId());
+            }
             // Remove password from response
             updated.setPassword(null);
             return ResponseEntity.ok(updated);
@@ -156,6 +214,7 @@ public class UserController {
     public ResponseEntity<?> delete(@PathVariable long id) {
         try {
             userService.delete(id);
+            profileCache.evictUser(id);
             return ResponseEntity.ok().body("User deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -169,24 +228,14 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
-        try {
-            String jwt = token.substring(7); // Remove "Bearer " prefix
-            String email = jwtUtil.extractEmail(jwt);
-            String role = jwtUtil.extractRole(jwt);
-            Long userId = jwtUtil.extractUserId(jwt);
-
-            User user = userService.read(userId);
-            if (user == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // Remove password from response
-            user.setPassword(null);
-            return ResponseEntity.ok(user);
-
-        } catch (Exception e) {
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
+        ProfileDTO profile = profileCache.getUser(principal.userId());
+        if (profile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(profile);
     }
 }
\ No newline at end of file
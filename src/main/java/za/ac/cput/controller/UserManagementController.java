@@ -7,12 +7,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import za.ac.cput.DTO.UserRequest;
 import za.ac.cput.domain.Admin;
+import za.ac.cput.domain.RefreshToken;
 import za.ac.cput.domain.User;
 import za.ac.cput.factory.AdminFactory;
 import za.ac.cput.factory.UserFactory;
 import za.ac.cput.repository.AdminRepository;
 import za.ac.cput.repository.UserRepository;
 import za.ac.cput.service.AdminService;
+import za.ac.cput.service.ProfileCache;
+import za.ac.cput.service.RefreshTokenService;
 import za.ac.cput.service.UserService;
 import za.ac.cput.util.JwtUtil;
 
@@ -33,17 +36,22 @@ public class UserManagementController {
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final ProfileCache profileCache;
 
     @Autowired
     public UserManagementController(UserService userService, AdminService adminService,
                                     UserRepository userRepository, AdminRepository adminRepository,
-                                    PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+                                    PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                                    RefreshTokenService refreshTokenService, ProfileCache profileCache) {
         this.userService = userService;
         this.adminService = adminService;
         this.userRepository = userRepository;
         this.adminRepository = adminRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.profileCache = profileCache;
     }
 
     // Get all users (regular users only)
@@ -196,6 +204,10 @@ public class UserManagementController {
         }
 
         User saved = userService.update(updatedUser);
+        profileCache.evictUser(existingUser.getId());
+        if (userRequest.getPassword() != null && !userRequest.getPassword().isEmpty()) {
+            refreshTokenService.revokeAll(RefreshToken.AccountType.USER, saved.getId());
+        }
         Map<String, Object> response = convertToUserDTO(saved);
         response.put("message", "User updated successfully");
         return ResponseEntity.ok(response);
@@ -227,6 +239,10 @@ public class UserManagementController {
         }
 
         Admin saved = adminService.update(updatedAdmin);
+        profileCache.evictAdmin(existingAdmin.getId());
+        if (adminRequest.getPassword() != null && !adminRequest.getPassword().isEmpty()) {
+            refreshTokenService.revokeAll(RefreshToken.AccountType.ADMIN, saved.getId());
+        }
         Map<String, Object> response = convertToAdminDTO(saved);
         response.put("message", "Admin updated successfully");
         return ResponseEntity.ok(response);
@@ -240,6 +256,7 @@ public class UserManagementController {
             User user = userService.read(id);
             if (user != null) {
                 userService.delete(id);
+                profileCache.evictUser(id);
                 return ResponseEntity.ok().body("User deleted successfully");
             }
 
@@ -247,6 +264,7 @@ public class UserManagementController {
             Admin admin = adminService.read(id);
             if (admin != null) {
                 adminService.delete(id);
+                profileCache.evictAdmin(id);
                 return ResponseEntity.ok().body("Admin deleted successfully");
             }
 
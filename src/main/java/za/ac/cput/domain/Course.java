@@ -115,8 +115,14 @@ package za.ac.cput.domain;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
+import java.util.Objects;
+
 @Entity
-@Table(name = "course")
+@Table(name = "course", indexes = {
+        @Index(name = "idx_course_title", columnList = "title"),
+        @Index(name = "idx_course_image_digest", columnList = "imageDigest")
+})
 public class Course {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -127,16 +133,39 @@ public class Course {
     @Column(length = 1000)
     private String description;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] image;
+    // SHA-256 of the image bytes held in the MediaStore
+    @Column(length = 64)
+    private String imageDigest;
+
+    private Long imageSize;
+
+    // Detected from the file signature at upload, never re-sniffed when serving
+    @Column(length = 100)
+    private String imageContentType;
+
+    // Last-Modified for the media endpoint
+    private Instant imageUpdatedAt;
+
+    // Maximum approved enrollments; null means unlimited
+    private Integer capacity;
+
+    // Approved enrollments holding a seat. Only ever changed by the conditional UPDATEs in
+    // CourseRepository, never written back from the entity.
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    private int seatsTaken;
 
     // Private constructor for Builder
     private Course(Builder builder) {
         this.id = builder.id;
         this.title = builder.title;
         this.description = builder.description;
-        this.image = builder.image;
+        this.imageDigest = builder.imageDigest;
+        this.imageSize = builder.imageSize;
+        this.imageContentType = builder.imageContentType;
+        this.imageUpdatedAt = builder.imageUpdatedAt;
+        this.capacity = builder.capacity;
+        this.seatsTaken = builder.seatsTaken;
     }
 
     // Default constructor (required by JPA)
@@ -146,20 +175,34 @@ public class Course {
     public Long getId() { return id; }
     public String getTitle() { return title; }
     public String getDescription() { return description; }
-    public byte[] getImage() { return image; }
+    public String getImageDigest() { return imageDigest; }
+    public Long getImageSize() { return imageSize; }
+    public String getImageContentType() { return imageContentType; }
+    public Instant getImageUpdatedAt() { return imageUpdatedAt; }
+    public Integer getCapacity() { return capacity; }
+    public int getSeatsTaken() { return seatsTaken; }
 
     // Setters (optional, can be removed if using Builder only)
     public void setId(Long id) { this.id = id; }
     public void setTitle(String title) { this.title = title; }
     public void setDescription(String description) { this.description = description; }
-    public void setImage(byte[] image) { this.image = image; }
+    public void setImageDigest(String imageDigest) { this.imageDigest = imageDigest; }
+    public void setImageSize(Long imageSize) { this.imageSize = imageSize; }
+    public void setImageContentType(String imageContentType) { this.imageContentType = imageContentType; }
+    public void setImageUpdatedAt(Instant imageUpdatedAt) { this.imageUpdatedAt = imageUpdatedAt; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
 
     // Builder class
     public static class Builder {
         private Long id;
         private String title;
         private String description;
-        private byte[] image;
+        private String imageDigest;
+        private Long imageSize;
+        private String imageContentType;
+        private Instant imageUpdatedAt;
+        private Integer capacity;
+        private int seatsTaken;
 
         public Builder setId(Long id) {
             this.id = id;
@@ -176,8 +219,28 @@ public class Course {
             return this;
         }
 
-        public Builder setImage(byte[] image) {
-            this.image = image;
+        public Builder setImageDigest(String imageDigest) {
+            this.imageDigest = imageDigest;
+            return this;
+        }
+
+        public Builder setImageSize(Long imageSize) {
+            this.imageSize = imageSize;
+            return this;
+        }
+
+        public Builder setImageContentType(String imageContentType) {
+            this.imageContentType = imageContentType;
+            return this;
+        }
+
+        public Builder setImageUpdatedAt(Instant imageUpdatedAt) {
+            this.imageUpdatedAt = imageUpdatedAt;
+            return this;
+        }
+
+        public Builder setCapacity(Integer capacity) {
+            this.capacity = capacity;
             return this;
         }
 
@@ -185,7 +248,12 @@ public class Course {
             this.id = course.id;
             this.title = course.title;
             this.description = course.description;
-            this.image = course.image;
+            this.imageDigest = course.imageDigest;
+            this.imageSize = course.imageSize;
+            this.imageContentType = course.imageContentType;
+            this.imageUpdatedAt = course.imageUpdatedAt;
+            this.capacity = course.capacity;
+            this.seatsTaken = course.seatsTaken;
             return this;
         }
 
@@ -200,20 +268,15 @@ public class Course {
         if (o == null || getClass() != o.getClass()) return false;
 
         Course course = (Course) o;
-
-        if (!id.equals(course.id)) return false;
-        if (!title.equals(course.title)) return false;
-        if (!description.equals(course.description)) return false;
-        return java.util.Arrays.equals(image, course.image);
+        return Objects.equals(id, course.id)
+                && Objects.equals(title, course.title)
+                && Objects.equals(description, course.description)
+                && Objects.equals(imageDigest, course.imageDigest);
     }
 
     @Override
     public int hashCode() {
-        int result = id.hashCode();
-        result = 31 * result + title.hashCode();
-        result = 31 * result + description.hashCode();
-        result = 31 * result + java.util.Arrays.hashCode(image);
-        return result;
+        return Objects.hash(id, title, description, imageDigest);
     }
 
     @Override
@@ -222,7 +285,12 @@ public class Course {
                 "id=" + id +
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
-                ", image=" + (image != null ? "[" + image.length + " bytes]" : "null") +
+                ", imageDigest='" + imageDigest + '\'' +
+                ", imageSize=" + imageSize +
+                ", imageContentType='" + imageContentType + '\'' +
+                ", imageUpdatedAt=" + imageUpdatedAt +
+                ", capacity=" + capacity +
+                ", seatsTaken=" + seatsTaken +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package za.ac.cput.domain;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+// Read model: enrollment counts per course and status. EnrollmentStatsService keeps it in step
+// with the enrollment table, inside the same transaction as each change.
+@Entity
+@Table(name = "course_enrollment_stats")
+public class CourseEnrollmentStats {
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "waitlisted_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long waitlistedCount;
+
+    public CourseEnrollmentStats() {}
+
+    public Long getCourseId() { return courseId; }
+    public long getPendingCount() { return pendingCount; }
+    public long getApprovedCount() { return approvedCount; }
+    public long getRejectedCount() { return rejectedCount; }
+    public long getWaitlistedCount() { return waitlistedCount; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CourseEnrollmentStats)) return false;
+        CourseEnrollmentStats that = (CourseEnrollmentStats) o;
+        return Objects.equals(courseId, that.courseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(courseId);
+    }
+}
@@ -1,13 +1,23 @@
 package za.ac.cput.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "enrollment")
+@Table(name = "enrollment",
+        indexes = {
+                @Index(name = "idx_enrollment_waitlist", columnList = "course_id, status, waitlisted_at"),
+                @Index(name = "idx_enrollment_status_date", columnList = "status, enrollment_date")
+        },
+        uniqueConstraints = @UniqueConstraint(name = Enrollment.UNIQUE_STUDENT_COURSE, columnNames = {"student_id", "course_id"}))
 public class Enrollment {
 
+    public static final String UNIQUE_STUDENT_COURSE = "uk_enrollment_student_course";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,17 +30,24 @@ public class Enrollment {
     @JoinColumn(name = "course_id", nullable = false)
     private Course course;
 
+    // Plain VARCHAR rather than a MySQL ENUM, so adding a status needs no column change
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
     private Status status = Status.PENDING;
 
+    // Position in the course waitlist (FIFO); only set while WAITLISTED
+    @Column(name = "waitlisted_at")
+    private LocalDateTime waitlistedAt;
+
     @Column(name = "enrollment_date", nullable = false)
     private LocalDateTime enrollmentDate = LocalDateTime.now();
 
     public enum Status {
         PENDING,
         APPROVED,
-        REJECTED
+        REJECTED,
+        WAITLISTED
     }
 
     public Enrollment() {}
@@ -78,6 +95,14 @@ public class Enrollment {
         this.status = status;
     }
 
+    public LocalDateTime getWaitlistedAt() {
+        return waitlistedAt;
+    }
+
+    public void setWaitlistedAt(LocalDateTime waitlistedAt) {
+        this.waitlistedAt = waitlistedAt;
+    }
+
     public LocalDateTime getEnrollmentDate() {
         return enrollmentDate;
     }
@@ -0,0 +1,62 @@
+package za.ac.cput.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Cold copy of enrollments moved out of the enrollment table by EnrollmentArchiver. Rows keep
+// their original id and hold plain student/course ids, so archiving never depends on, or
+// blocks changes to, users and courses.
+@Entity
+@Table(name = "enrollment_archive", indexes = {
+        @Index(name = "idx_enrollment_archive_student", columnList = "student_id"),
+        @Index(name = "idx_enrollment_archive_course", columnList = "course_id"),
+        @Index(name = "idx_enrollment_archive_status", columnList = "status")
+})
+public class EnrollmentArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private Enrollment.Status status;
+
+    @Column(name = "enrollment_date", nullable = false)
+    private LocalDateTime enrollmentDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public EnrollmentArchive() {}
+
+    public Long getId() { return id; }
+    public Long getStudentId() { return studentId; }
+    public Long getCourseId() { return courseId; }
+    public Enrollment.Status getStatus() { return status; }
+    public LocalDateTime getEnrollmentDate() { return enrollmentDate; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EnrollmentArchive)) return false;
+        EnrollmentArchive that = (EnrollmentArchive) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
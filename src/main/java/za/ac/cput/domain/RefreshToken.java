@@ -0,0 +1,69 @@
+package za.ac.cput.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// A refresh token, stored only as its SHA-256. Every use rotates it: the row is marked used
+// and a new token in the same family is issued. Presenting a used token again means it was
+// copied, so the whole family is revoked.
+@Entity
+@Table(name = "refresh_token",
+        indexes = {
+                @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_token_account", columnList = "account_type, account_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash"))
+public class RefreshToken {
+
+    // Users and admins live in separate tables
+    public enum AccountType { USER, ADMIN }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account_type", nullable = false, length = 10)
+    private AccountType accountType;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Set when the token is rotated, or when its family is revoked
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    protected RefreshToken() {}
+
+    public RefreshToken(String tokenHash, AccountType accountType, Long accountId, String familyId,
+                        Instant createdAt, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.accountType = accountType;
+        this.accountId = accountId;
+        this.familyId = familyId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public String getTokenHash() { return tokenHash; }
+    public AccountType getAccountType() { return accountType; }
+    public Long getAccountId() { return accountId; }
+    public String getFamilyId() { return familyId; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public Instant getRevokedAt() { return revokedAt; }
+}
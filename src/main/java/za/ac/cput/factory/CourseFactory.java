@@ -22,10 +22,13 @@
 package za.ac.cput.factory;
 
 import za.ac.cput.domain.Course;
+import za.ac.cput.storage.StoredMedia;
 import za.ac.cput.util.Helper;
 
+import java.time.Instant;
+
 public class CourseFactory {
-    public static Course buildCourse(String title, String description, byte[] image) {
+    public static Course buildCourse(String title, String description, StoredMedia image) {
         if (Helper.isNullorEmpty(title) || Helper.isNullorEmpty(description)) {
             return null;
         }
@@ -33,7 +36,10 @@ public class CourseFactory {
         return new Course.Builder()
                 .setTitle(title)
                 .setDescription(description)
-                .setImage(image)
+                .setImageDigest(image != null ? image.getDigest() : null)
+                .setImageSize(image != null ? image.getSize() : null)
+                .setImageContentType(image != null ? image.getContentType() : null)
+                .setImageUpdatedAt(image != null ? Instant.now() : null)
                 .build();
     }
 
@@ -41,7 +47,7 @@ public class CourseFactory {
         return buildCourse(title, description, null);
     }
 
-    public static Course createCourseWithId(Long id, String title, String description, byte[] image) {
+    public static Course createCourseWithId(Long id, String title, String description, StoredMedia image) {
         if (Helper.isNullorEmpty(title) || Helper.isNullorEmpty(description)) {
             return null;
         }
@@ -50,7 +56,10 @@ public class CourseFactory {
                 .setId(id)
                 .setTitle(title)
                 .setDescription(description)
-                .setImage(image)
+                .setImageDigest(image != null ? image.getDigest() : null)
+                .setImageSize(image != null ? image.getSize() : null)
+                .setImageContentType(image != null ? image.getContentType() : null)
+                .setImageUpdatedAt(image != null ? Instant.now() : null)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -12,7 +12,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import za.ac.cput.util.JwtUtil;
+import za.ac.cput.service.TokenRevocationList;
+import za.ac.cput.util.AuthenticatedUser;
+import za.ac.cput.util.VerifiedClaims;
+import za.ac.cput.util.VerifiedClaimsCache;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -20,10 +23,12 @@ import java.util.Collections;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final VerifiedClaimsCache claimsCache;
+    private final TokenRevocationList revocationList;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(VerifiedClaimsCache claimsCache, TokenRevocationList revocationList) {
+        this.claimsCache = claimsCache;
+        this.revocationList = revocationList;
     }
 
     @Override
@@ -35,7 +40,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -44,19 +48,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            userEmail = jwtUtil.extractEmail(jwt);
-            String role = jwtUtil.extractRole(jwt);
+            // Signature and expiry are checked here (or were, for a cached token)
+            VerifiedClaims claims = claimsCache.verify(jwt);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.validateToken(jwt, userEmail)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail,
-                            null,
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            // In-memory check; tokens without a jti predate revocation and are no longer accepted
+            if (claims.tokenId() == null || revocationList.isRevoked(claims.tokenId())) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+
+            if (claims.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        new AuthenticatedUser(claims.userId(), claims.email(), claims.role()),
+                        null,
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + claims.role()))
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Token is invalid
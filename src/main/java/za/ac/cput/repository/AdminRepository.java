@@ -1,10 +1,26 @@
 package za.ac.cput.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.DTO.ProfileDTO;
 import za.ac.cput.domain.Admin;
 
+import java.util.Optional;
+
 @Repository
 public interface AdminRepository extends JpaRepository<Admin, Long> {
     Admin findByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("select new za.ac.cput.DTO.ProfileDTO(a.id, a.firstName, a.lastName, a.email, a.role) from Admin a where a.id = :id")
+    Optional<ProfileDTO> findProfileById(@Param("id") Long id);
+
+    // Rehash on login; skipped if the password was changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("update Admin a set a.password = :newHash where a.id = :id and a.password = :oldHash")
+    int upgradePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+}
@@ -0,0 +1,23 @@
+package za.ac.cput.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.ac.cput.DTO.CourseEnrollmentStatsDTO;
+import za.ac.cput.domain.CourseEnrollmentStats;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseEnrollmentStatsRepository extends JpaRepository<CourseEnrollmentStats, Long> {
+
+    @Query("select new za.ac.cput.DTO.CourseEnrollmentStatsDTO(c.id, c.title, s.pendingCount, s.approvedCount, s.rejectedCount, s.waitlistedCount) " +
+            "from CourseEnrollmentStats s join Course c on c.id = s.courseId order by c.id")
+    List<CourseEnrollmentStatsDTO> findAllDTOs();
+
+    @Query("select new za.ac.cput.DTO.CourseEnrollmentStatsDTO(c.id, c.title, s.pendingCount, s.approvedCount, s.rejectedCount, s.waitlistedCount) " +
+            "from CourseEnrollmentStats s join Course c on c.id = s.courseId where c.id = :courseId")
+    Optional<CourseEnrollmentStatsDTO> findDTOByCourseId(@Param("courseId") Long courseId);
+}
@@ -1,13 +1,85 @@
 package za.ac.cput.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import za.ac.cput.DTO.CourseMediaDTO;
+import za.ac.cput.DTO.CourseSummary;
 import za.ac.cput.domain.Course;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
     Optional<Course> findByTitle(String courseName);
+
+    boolean existsByImageDigest(String imageDigest);
+
+    // Which of these digests some course still points at (orphan sweep)
+    @Query("select distinct c.imageDigest from Course c where c.imageDigest in :digests")
+    List<String> findImageDigestsIn(@Param("digests") Collection<String> digests);
+
+    @Query("select new za.ac.cput.DTO.CourseMediaDTO(c.id, c.imageDigest, c.imageSize, c.imageContentType, c.imageUpdatedAt) " +
+            "from Course c where c.id = :id")
+    Optional<CourseMediaDTO> findMediaById(@Param("id") Long id);
+
+    @Query("select new za.ac.cput.DTO.CourseSummary(c.id, c.title, c.description, c.imageDigest) " +
+            "from Course c order by c.id")
+    List<CourseSummary> findAllSummaries();
+
+    @Query("select new za.ac.cput.DTO.CourseSummary(c.id, c.title, c.description, c.imageDigest) " +
+            "from Course c where c.id = :id")
+    Optional<CourseSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("select new za.ac.cput.DTO.CourseSummary(c.id, c.title, c.description, c.imageDigest) " +
+            "from Course c where c.id in :ids order by c.id")
+    List<CourseSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Seat allocation. Conditional single-row updates, so the row lock serialises concurrent
+    // approvals and capacity can never be exceeded.
+    @Modifying
+    @Query(value = "UPDATE course SET seats_taken = seats_taken + 1 " +
+            "WHERE id = :id AND (capacity IS NULL OR seats_taken < capacity)", nativeQuery = true)
+    int allocateSeat(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE course SET seats_taken = seats_taken + :count " +
+            "WHERE id = :id AND (capacity IS NULL OR seats_taken + :count <= capacity)", nativeQuery = true)
+    int allocateSeats(@Param("id") Long id, @Param("count") int count);
+
+    @Modifying
+    @Query(value = "UPDATE course SET seats_taken = seats_taken - 1 WHERE id = :id AND seats_taken > 0", nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    // Resets seats_taken to the number of approved enrollments, archived ones included
+    @Modifying
+    @Query(value = "UPDATE course c SET c.seats_taken = " +
+            "(SELECT COUNT(*) FROM enrollment e WHERE e.course_id = c.id AND e.status = 'APPROVED') + " +
+            "(SELECT COUNT(*) FROM enrollment_archive a WHERE a.course_id = c.id AND a.status = 'APPROVED') " +
+            "WHERE c.id IN :ids", nativeQuery = true)
+    int recountSeats(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT COUNT(*) FROM course WHERE id IN :ids AND capacity IS NOT NULL AND seats_taken > capacity",
+            nativeQuery = true)
+    long countOverCapacity(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE course SET capacity = :capacity WHERE id = :id", nativeQuery = true)
+    int updateCapacity(@Param("id") Long id, @Param("capacity") Integer capacity);
+
+    // (capacity, seatsTaken)
+    @Query("select c.capacity, c.seatsTaken from Course c where c.id = :id")
+    List<Object[]> findSeats(@Param("id") Long id);
+
+    @Query("select c.id from Course c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // (title, id) pairs
+    @Query("select c.title, c.id from Course c where c.title in :titles")
+    List<Object[]> findIdsByTitleIn(@Param("titles") Collection<String> titles);
 }
@@ -0,0 +1,45 @@
+package za.ac.cput.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.ac.cput.DTO.EnrollmentDTO;
+import za.ac.cput.domain.Enrollment;
+import za.ac.cput.domain.EnrollmentArchive;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EnrollmentArchiveRepository extends JpaRepository<EnrollmentArchive, Long> {
+
+    // Same shape as the EnrollmentRepository projections; left joins because the student or
+    // course may have been deleted since the row was archived
+    String DTO_SELECT = "select new za.ac.cput.DTO.EnrollmentDTO(a.id, s.firstName, s.lastName, c.title, a.status, a.enrollmentDate) " +
+            "from EnrollmentArchive a left join User s on s.id = a.studentId left join Course c on c.id = a.courseId ";
+
+    // Archived rows still count as enrolled. A locking read, so an archive batch that is
+    // moving the pair right now is waited for rather than missed.
+    @Query(value = "SELECT COUNT(*) FROM enrollment_archive WHERE student_id = :studentId AND course_id = :courseId FOR SHARE",
+            nativeQuery = true)
+    long lockCountByStudentAndCourse(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    // (studentId, courseId) of archived enrollments, for skipping pairs in bulk inserts
+    @Query("select a.studentId, a.courseId from EnrollmentArchive a " +
+            "where a.studentId in :studentIds and a.courseId in :courseIds")
+    List<Object[]> findPairs(@Param("studentIds") Collection<Long> studentIds,
+                             @Param("courseIds") Collection<Long> courseIds);
+
+    @Query(DTO_SELECT + "order by a.id")
+    List<EnrollmentDTO> findAllDTOs();
+
+    @Query(DTO_SELECT + "where a.studentId = :studentId order by a.id")
+    List<EnrollmentDTO> findDTOsByStudentId(@Param("studentId") Long studentId);
+
+    @Query(DTO_SELECT + "where a.courseId = :courseId order by a.id")
+    List<EnrollmentDTO> findDTOsByCourseId(@Param("courseId") Long courseId);
+
+    @Query(DTO_SELECT + "where a.status = :status order by a.id")
+    List<EnrollmentDTO> findDTOsByStatus(@Param("status") Enrollment.Status status);
+}
@@ -1,12 +1,21 @@
 package za.ac.cput.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import za.ac.cput.DTO.EnrollmentDTO;
 import za.ac.cput.domain.Course;
 import za.ac.cput.domain.Enrollment;
 import za.ac.cput.domain.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
@@ -14,4 +23,87 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByStudent(User student);
     List<Enrollment> findByCourse(Course course);
     List<Enrollment> findByStatus(Enrollment.Status status);
+
+    // SELECT ... FOR UPDATE: single status changes hold the row so concurrent changes (and the
+    // waitlist promoter, which skips locked rows) can't both move a seat for it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Enrollment e where e.id = :id")
+    Optional<Enrollment> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select distinct e.course.id from Enrollment e where e.id in :ids")
+    List<Long> findCourseIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Courses a filtered status update would touch
+    @Query("select distinct e.course.id from Enrollment e where e.status <> :status " +
+            "and (:currentStatus is null or e.status = :currentStatus) " +
+            "and (:enrolledBefore is null or e.enrollmentDate < :enrolledBefore)")
+    List<Long> findCourseIdsByFilter(@Param("status") Enrollment.Status status,
+                                     @Param("currentStatus") Enrollment.Status currentStatus,
+                                     @Param("enrolledBefore") LocalDateTime enrolledBefore);
+
+    // Students whose enrollments a status update would change, to notify after a bulk update
+    @Query("select distinct e.student.id from Enrollment e where e.id in :ids and e.status <> :status")
+    List<Long> findStudentIdsByIdIn(@Param("ids") Collection<Long> ids, @Param("status") Enrollment.Status status);
+
+    @Query("select distinct e.student.id from Enrollment e where e.status <> :status " +
+            "and (:courseId is null or e.course.id = :courseId) " +
+            "and (:currentStatus is null or e.status = :currentStatus) " +
+            "and (:enrolledBefore is null or e.enrollmentDate < :enrolledBefore)")
+    List<Long> findStudentIdsByFilter(@Param("status") Enrollment.Status status,
+                                      @Param("courseId") Long courseId,
+                                      @Param("currentStatus") Enrollment.Status currentStatus,
+                                      @Param("enrolledBefore") LocalDateTime enrolledBefore);
+
+    // Set-based status transitions; rows already in the target status are not touched or counted
+    @Modifying(clearAutomatically = true)
+    @Query("update Enrollment e set e.status = :status, e.waitlistedAt = :waitlistedAt " +
+            "where e.id in :ids and e.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") Enrollment.Status status,
+                           @Param("waitlistedAt") LocalDateTime waitlistedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Enrollment e set e.status = :status, e.waitlistedAt = :waitlistedAt where e.status <> :status " +
+            "and (:courseId is null or e.course.id = :courseId) " +
+            "and (:currentStatus is null or e.status = :currentStatus) " +
+            "and (:enrolledBefore is null or e.enrollmentDate < :enrolledBefore)")
+    int updateStatusByFilter(@Param("status") Enrollment.Status status,
+                             @Param("waitlistedAt") LocalDateTime waitlistedAt,
+                             @Param("courseId") Long courseId,
+                             @Param("currentStatus") Enrollment.Status currentStatus,
+                             @Param("enrolledBefore") LocalDateTime enrolledBefore);
+
+    // Waitlist: (id, studentId) of the oldest entries, locked so concurrent promoters skip them
+    @Query(value = "SELECT id, student_id FROM enrollment WHERE course_id = :courseId AND status = 'WAITLISTED' " +
+            "ORDER BY waitlisted_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockWaitlistHead(@Param("courseId") Long courseId, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Enrollment e set e.status = za.ac.cput.domain.Enrollment.Status.APPROVED, e.waitlistedAt = null " +
+            "where e.id in :ids and e.status = za.ac.cput.domain.Enrollment.Status.WAITLISTED")
+    int promoteWaitlisted(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct e.course.id from Enrollment e where e.status = za.ac.cput.domain.Enrollment.Status.WAITLISTED")
+    List<Long> findCourseIdsWithWaitlist();
+
+    // DTO projections: one join selecting only the columns EnrollmentDTO needs
+    String DTO_SELECT = "select new za.ac.cput.DTO.EnrollmentDTO(e.id, s.firstName, s.lastName, c.title, e.status, e.enrollmentDate) " +
+            "from Enrollment e join e.student s join e.course c ";
+
+    // (studentId, courseId) of existing enrollments, for skipping pairs in bulk inserts
+    @Query("select e.student.id, e.course.id from Enrollment e " +
+            "where e.student.id in :studentIds and e.course.id in :courseIds")
+    List<Object[]> findPairs(@Param("studentIds") Collection<Long> studentIds,
+                             @Param("courseIds") Collection<Long> courseIds);
+
+    @Query(DTO_SELECT + "order by e.id")
+    List<EnrollmentDTO> findAllDTOs();
+
+    @Query(DTO_SELECT + "where s.id = :studentId order by e.id")
+    List<EnrollmentDTO> findDTOsByStudentId(@Param("studentId") Long studentId);
+
+    @Query(DTO_SELECT + "where c.id = :courseId order by e.id")
+    List<EnrollmentDTO> findDTOsByCourseId(@Param("courseId") Long courseId);
+
+    @Query(DTO_SELECT + "where e.status = :status order by e.id")
+    List<EnrollmentDTO> findDTOsByStatus(@Param("status") Enrollment.Status status);
 }
\ No newline at end of file
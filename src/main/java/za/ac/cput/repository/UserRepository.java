@@ -1,9 +1,16 @@
 package za.ac.cput.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.DTO.ProfileDTO;
 import za.ac.cput.domain.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +18,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
 
     Optional<User> findByFirstNameAndLastName(String firstName, String lastName);
+
+    @Query("select new za.ac.cput.DTO.ProfileDTO(u.id, u.firstName, u.lastName, u.email, u.role) from User u where u.id = :id")
+    Optional<ProfileDTO> findProfileById(@Param("id") Long id);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // (email, id) pairs
+    @Query("select u.email, u.id from User u where u.email in :emails")
+    List<Object[]> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    // Rehash on login; skipped if the password was changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int upgradePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
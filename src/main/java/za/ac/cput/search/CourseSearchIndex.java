@@ -0,0 +1,338 @@
+package za.ac.cput.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import za.ac.cput.DTO.CourseSummary;
+import za.ac.cput.repository.CourseRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over course titles and descriptions, built at startup and kept
+// current by CourseService. Query tokens are expanded to indexed terms that equal them,
+// contain them, or are within a small edit distance, and matches are ranked with BM25F
+// (title weighted above description). Only the requested page is kept in a bounded heap.
+// Fuzzy candidates come from shared trigrams and, because one typo in a short word can
+// break every trigram ("jafa" vs "java"), from a single-deletion neighbourhood as well.
+@Component
+public class CourseSearchIndex {
+
+    private static final int GRAM = 3;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    // How much a term counts when it only approximately matches the query token
+    private static final double EXACT_MATCH = 1.0;
+    private static final double SUBSTRING_MATCH = 0.7;
+    private static final double FUZZY_MATCH = 0.5;
+
+    private final CourseRepository courseRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> termPostings = new HashMap<>();
+    private final Map<String, Set<String>> gramTerms = new HashMap<>();
+    // Each term and every variant of it with one character deleted, mapped back to the term:
+    // two words within one edit of each other always share one of these keys
+    private final Map<String, Set<String>> deletionTerms = new HashMap<>();
+    private long totalTitleLength;
+    private long totalDescriptionLength;
+
+    public CourseSearchIndex(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<CourseSummary> courses = courseRepository.findAllSummaries();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            termPostings.clear();
+            gramTerms.clear();
+            deletionTerms.clear();
+            totalTitleLength = 0;
+            totalDescriptionLength = 0;
+            for (CourseSummary course : courses) {
+                add(course.getId(), course.getTitle(), course.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Course search index built with " + courses.size() + " course(s)");
+    }
+
+    public void index(Long id, String title, String description) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            add(id, title, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(Long id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the best matches, most relevant first. Every query token has to match some
+    // term of the course; an empty keyword pages through all courses by id.
+    public List<Long> search(String keyword, int offset, int limit) {
+        if (limit <= 0 || offset < 0) return Collections.emptyList();
+        List<String> queryTokens = tokenize(keyword);
+
+        lock.readLock().lock();
+        try {
+            if (queryTokens.isEmpty()) {
+                return documents.keySet().stream().sorted().skip(offset).limit(limit).toList();
+            }
+
+            Map<Long, Double> scores = null;
+            for (String token : queryTokens) {
+                Map<String, Double> expansions = expand(token);
+                Map<Long, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Double> expansion : expansions.entrySet()) {
+                    String term = expansion.getKey();
+                    Set<Long> postings = termPostings.get(term);
+                    double idf = idf(postings.size());
+                    for (Long id : postings) {
+                        // A token scores through its best-matching term in each course
+                        double score = expansion.getValue() * idf * documents.get(id).weightedTf(term, this);
+                        tokenScores.merge(id, score, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) return Collections.emptyList();
+            }
+            return topK(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Min-heap of size offset + limit: O(n log k) instead of sorting every hit
+    private List<Long> topK(Map<Long, Double> scores, int offset, int limit) {
+        int k = (int) Math.min((long) offset + limit, scores.size());
+        if (k <= offset) return Collections.emptyList();
+
+        Comparator<Map.Entry<Long, Double>> byRelevance = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(k, byRelevance);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (byRelevance.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList(offset, ranked.size());
+    }
+
+    // Indexed terms that can stand in for a query token, with their match weight
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (termPostings.containsKey(token)) {
+            expansions.put(token, EXACT_MATCH);
+        }
+
+        Set<String> candidates = new HashSet<>();
+        if (token.length() < GRAM) {
+            candidates.addAll(termPostings.keySet());
+        } else {
+            for (String gram : grams(token)) {
+                candidates.addAll(gramTerms.getOrDefault(gram, Collections.emptySet()));
+            }
+        }
+
+        int maxEdits = maxEdits(token);
+        if (maxEdits > 0) {
+            for (String variant : deletions(token)) {
+                candidates.addAll(deletionTerms.getOrDefault(variant, Collections.emptySet()));
+            }
+        }
+        for (String term : candidates) {
+            if (expansions.containsKey(term)) continue;
+            if (term.contains(token)) {
+                expansions.put(term, SUBSTRING_MATCH);
+            } else if (maxEdits > 0 && withinEditDistance(token, term, maxEdits)) {
+                expansions.put(term, FUZZY_MATCH);
+            }
+        }
+        return expansions;
+    }
+
+    // Short tokens must be spelled right; longer ones may carry one or two typos
+    private static int maxEdits(String token) {
+        if (token.length() < 4) return 0;
+        if (token.length() < 8) return 1;
+        return 2;
+    }
+
+    // Levenshtein distance restricted to a diagonal band, abandoning a row once it exceeds max
+    static boolean withinEditDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return false;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i;
+            if (from > 1) current[from - 1] = max + 1;
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) current[to + 1] = max + 1;
+            if (rowMin > max) return false;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    private double idf(int documentFrequency) {
+        double n = documents.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    // Caller holds the write lock
+    private void add(Long id, String title, String description) {
+        Document document = new Document(tokenize(title), tokenize(description));
+        documents.put(id, document);
+        totalTitleLength += document.titleLength;
+        totalDescriptionLength += document.descriptionLength;
+        for (String term : document.terms()) {
+            Set<Long> postings = termPostings.computeIfAbsent(term, t -> new HashSet<>());
+            if (postings.isEmpty()) {
+                for (String gram : grams(term)) {
+                    gramTerms.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+                for (String variant : deletions(term)) {
+                    deletionTerms.computeIfAbsent(variant, v -> new HashSet<>()).add(term);
+                }
+            }
+            postings.add(id);
+        }
+    }
+
+    // Caller holds the write lock
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) return;
+        totalTitleLength -= document.titleLength;
+        totalDescriptionLength -= document.descriptionLength;
+        for (String term : document.terms()) {
+            Set<Long> postings = termPostings.get(term);
+            if (postings == null) continue;
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                // Last course using this term: drop it from the vocabulary as well
+                termPostings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> terms = gramTerms.get(gram);
+                    if (terms == null) continue;
+                    terms.remove(term);
+                    if (terms.isEmpty()) gramTerms.remove(gram);
+                }
+                for (String variant : deletions(term)) {
+                    Set<String> terms = deletionTerms.get(variant);
+                    if (terms == null) continue;
+                    terms.remove(term);
+                    if (terms.isEmpty()) deletionTerms.remove(variant);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return Collections.emptyList();
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // The word itself plus each single-character deletion. Only tokens of four or more
+    // characters are fuzzy matched, so words under three can never be within one edit.
+    private static Set<String> deletions(String word) {
+        if (word.length() < 3) return Collections.emptySet();
+        Set<String> variants = new HashSet<>();
+        variants.add(word);
+        for (int i = 0; i < word.length(); i++) {
+            variants.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return variants;
+    }
+
+    private static class Document {
+        private final Map<String, Integer> titleTf = new HashMap<>();
+        private final Map<String, Integer> descriptionTf = new HashMap<>();
+        private final int titleLength;
+        private final int descriptionLength;
+
+        Document(List<String> titleTokens, List<String> descriptionTokens) {
+            for (String token : titleTokens) titleTf.merge(token, 1, Integer::sum);
+            for (String token : descriptionTokens) descriptionTf.merge(token, 1, Integer::sum);
+            this.titleLength = titleTokens.size();
+            this.descriptionLength = descriptionTokens.size();
+        }
+
+        Set<String> terms() {
+            Set<String> terms = new HashSet<>(titleTf.keySet());
+            terms.addAll(descriptionTf.keySet());
+            return terms;
+        }
+
+        // BM25F: length-normalise each field's tf, weight and sum, then saturate once
+        double weightedTf(String term, CourseSearchIndex index) {
+            int count = index.documents.size();
+            double avgTitle = count == 0 ? 1 : Math.max(1.0, (double) index.totalTitleLength / count);
+            double avgDescription = count == 0 ? 1 : Math.max(1.0, (double) index.totalDescriptionLength / count);
+
+            double tf = TITLE_WEIGHT * titleTf.getOrDefault(term, 0) / (1 - B + B * titleLength / avgTitle)
+                    + DESCRIPTION_WEIGHT * descriptionTf.getOrDefault(term, 0) / (1 - B + B * descriptionLength / avgDescription);
+            return tf / (K1 + tf) * (K1 + 1);
+        }
+    }
+}
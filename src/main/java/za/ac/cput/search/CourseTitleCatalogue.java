@@ -0,0 +1,78 @@
+package za.ac.cput.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import za.ac.cput.DTO.CourseSummary;
+import za.ac.cput.repository.CourseRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Course titles kept in memory so error hints never need a course table scan.
+// Loaded once at startup and updated by CourseService as courses change.
+@Component
+public class CourseTitleCatalogue {
+
+    private final CourseRepository courseRepository;
+    private final int maxHintTitles;
+    private final Map<Long, String> titles = new ConcurrentHashMap<>();
+
+    // Rendered lazily and dropped on every change
+    private volatile String hint;
+
+    public CourseTitleCatalogue(CourseRepository courseRepository,
+                                @Value("${courses.catalogue.max-hint-titles:50}") int maxHintTitles) {
+        this.courseRepository = courseRepository;
+        this.maxHintTitles = maxHintTitles;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<CourseSummary> courses = courseRepository.findAllSummaries();
+        titles.clear();
+        for (CourseSummary course : courses) {
+            if (course.getTitle() != null) {
+                titles.put(course.getId(), course.getTitle());
+            }
+        }
+        hint = null;
+    }
+
+    public void put(Long id, String title) {
+        if (id == null) return;
+        if (title == null) {
+            titles.remove(id);
+        } else {
+            titles.put(id, title);
+        }
+        hint = null;
+    }
+
+    public void remove(Long id) {
+        if (id == null) return;
+        titles.remove(id);
+        hint = null;
+    }
+
+    // Comma separated, alphabetical, capped at maxHintTitles
+    public String availableTitles() {
+        String current = hint;
+        if (current == null) {
+            List<String> sorted = titles.values().stream()
+                    .sorted(String.CASE_INSENSITIVE_ORDER)
+                    .toList();
+            current = sorted.stream()
+                    .limit(maxHintTitles)
+                    .collect(Collectors.joining(", "));
+            if (sorted.size() > maxHintTitles) {
+                current += " and " + (sorted.size() - maxHintTitles) + " more";
+            }
+            hint = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,370 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.DTO.BulkEnrollmentResult;
+import za.ac.cput.DTO.BulkEnrollmentResult.Outcome;
+import za.ac.cput.DTO.BulkEnrollmentRow;
+import za.ac.cput.DTO.EnrollmentEvent;
+import za.ac.cput.domain.Enrollment;
+import za.ac.cput.repository.CourseRepository;
+import za.ac.cput.repository.EnrollmentArchiveRepository;
+import za.ac.cput.repository.EnrollmentRepository;
+import za.ac.cput.repository.UserRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+// Enrolls a whole cohort in a handful of statements: every key is resolved with IN queries,
+// pairs that already exist are found with one lookup, and the rest go in as JDBC batches.
+// Enrollment ids are IDENTITY generated, which stops Hibernate from batching, so the
+// inserts bypass JPA.
+@Service
+public class BulkEnrollmentService {
+
+    // Keeps IN lists well below driver and optimizer limits
+    private static final int IN_CHUNK = 1000;
+
+    // Header cells accepted on the first CSV line, matched exactly after dropping case,
+    // spaces and underscores ("Course Title", "course_title")
+    private static final Set<String> STUDENT_HEADERS = Set.of("studentid", "student", "email");
+    private static final Set<String> COURSE_HEADERS = Set.of("courseid", "course", "coursetitle", "title");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentArchiveRepository archiveRepository;
+    private final EnrollmentStatsService statsService;
+    private final ApplicationEventPublisher events;
+    private final int maxRows;
+    private final int batchSize;
+
+    public BulkEnrollmentService(JdbcTemplate jdbcTemplate, UserRepository userRepository,
+                                 CourseRepository courseRepository, EnrollmentRepository enrollmentRepository,
+                                 EnrollmentArchiveRepository archiveRepository, EnrollmentStatsService statsService, ApplicationEventPublisher events,
+                                 @Value("${enrollment.bulk.max-rows:5000}") int maxRows,
+                                 @Value("${enrollment.bulk.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.archiveRepository = archiveRepository;
+        this.statsService = statsService;
+        this.events = events;
+        this.maxRows = maxRows;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public List<BulkEnrollmentResult> enroll(List<BulkEnrollmentRow> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("At least one row is required");
+        }
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("A bulk enrollment is limited to " + maxRows + " rows");
+        }
+
+        // Resolve every student and course key up front
+        Set<Long> studentIds = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (BulkEnrollmentRow row : rows) {
+            if (row == null) continue;
+            if (row.getStudentId() != null) studentIds.add(row.getStudentId());
+            else if (hasText(row.getEmail())) emails.add(row.getEmail().trim());
+            if (row.getCourseId() != null) courseIds.add(row.getCourseId());
+            else if (hasText(row.getCourseTitle())) titles.add(row.getCourseTitle().trim());
+        }
+
+        Set<Long> knownStudents = new HashSet<>(inChunks(studentIds, userRepository::findExistingIds));
+        Map<String, Long> studentsByEmail = toMap(inChunks(emails, userRepository::findIdsByEmailIn));
+        Set<Long> knownCourses = new HashSet<>(inChunks(courseIds, courseRepository::findExistingIds));
+        Map<String, Long> coursesByTitle = toMap(inChunks(titles, courseRepository::findIdsByTitleIn));
+
+        // Work out each row's outcome, leaving only genuinely new pairs
+        BulkEnrollmentResult[] results = new BulkEnrollmentResult[rows.size()];
+        Map<Integer, long[]> pending = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            BulkEnrollmentRow row = rows.get(i);
+            if (row == null || (row.getStudentId() == null && !hasText(row.getEmail()))
+                    || (row.getCourseId() == null && !hasText(row.getCourseTitle()))) {
+                results[i] = new BulkEnrollmentResult(i + 1, null, null, Outcome.INVALID,
+                        "A student id or email and a course id or title are required");
+                continue;
+            }
+
+            Long studentId = row.getStudentId() != null
+                    ? (knownStudents.contains(row.getStudentId()) ? row.getStudentId() : null)
+                    : studentsByEmail.get(row.getEmail().trim());
+            Long courseId = row.getCourseId() != null
+                    ? (knownCourses.contains(row.getCourseId()) ? row.getCourseId() : null)
+                    : coursesByTitle.get(row.getCourseTitle().trim());
+
+            if (studentId == null) {
+                results[i] = new BulkEnrollmentResult(i + 1, null, courseId, Outcome.STUDENT_NOT_FOUND, "Student not found");
+            } else if (courseId == null) {
+                results[i] = new BulkEnrollmentResult(i + 1, studentId, null, Outcome.COURSE_NOT_FOUND, "Course not found");
+            } else {
+                pending.put(i, new long[]{studentId, courseId});
+            }
+        }
+
+        // One lookup for pairs that already exist
+        Set<Long> pendingStudents = new HashSet<>();
+        Set<Long> pendingCourses = new HashSet<>();
+        for (long[] pair : pending.values()) {
+            pendingStudents.add(pair[0]);
+            pendingCourses.add(pair[1]);
+        }
+        Set<List<Long>> existing = new HashSet<>();
+        for (Object[] pair : inChunks(pendingStudents, ids -> enrollmentRepository.findPairs(ids, pendingCourses))) {
+            existing.add(List.of((Long) pair[0], (Long) pair[1]));
+        }
+        for (Object[] pair : inChunks(pendingStudents, ids -> archiveRepository.findPairs(ids, pendingCourses))) {
+            existing.add(List.of((Long) pair[0], (Long) pair[1]));
+        }
+
+        List<Integer> toInsert = new ArrayList<>();
+        Set<List<Long>> seen = new HashSet<>();
+        for (Map.Entry<Integer, long[]> entry : pending.entrySet()) {
+            int i = entry.getKey();
+            long studentId = entry.getValue()[0];
+            long courseId = entry.getValue()[1];
+            List<Long> pair = List.of(studentId, courseId);
+            if (existing.contains(pair)) {
+                results[i] = new BulkEnrollmentResult(i + 1, studentId, courseId, Outcome.ALREADY_ENROLLED, "Already enrolled");
+            } else if (!seen.add(pair)) {
+                results[i] = new BulkEnrollmentResult(i + 1, studentId, courseId, Outcome.DUPLICATE_ROW, "Repeats an earlier row");
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> created = new ArrayList<>();
+        for (int from = 0; from < toInsert.size(); from += batchSize) {
+            List<Integer> chunk = toInsert.subList(from, Math.min(from + batchSize, toInsert.size()));
+            for (int i : insertChunk(chunk, pending, now)) {
+                long[] pair = pending.get(i);
+                created.add(i);
+                results[i] = new BulkEnrollmentResult(i + 1, pair[0], pair[1], Outcome.CREATED, "Enrolled");
+            }
+            // Enrolled by someone else between the lookup and the insert
+            for (int i : chunk) {
+                if (results[i] == null) {
+                    long[] pair = pending.get(i);
+                    results[i] = new BulkEnrollmentResult(i + 1, pair[0], pair[1], Outcome.ALREADY_ENROLLED, "Already enrolled");
+                }
+            }
+        }
+
+        Set<Long> touchedCourses = new HashSet<>();
+        Set<Long> enrolledStudents = new HashSet<>();
+        for (int i : created) {
+            enrolledStudents.add(pending.get(i)[0]);
+            touchedCourses.add(pending.get(i)[1]);
+        }
+        statsService.recount(touchedCourses);
+        if (!created.isEmpty()) {
+            events.publishEvent(EnrollmentEvent.bulk(EnrollmentEvent.Type.BULK_CREATED,
+                    touchedCourses.size() == 1 ? touchedCourses.iterator().next() : null,
+                    Enrollment.Status.PENDING, created.size(), enrolledStudents));
+        }
+        return Arrays.asList(results);
+    }
+
+    // Inserts one chunk and returns the rows that went in. A plain INSERT either inserts every
+    // row or fails, so the result is exact even when the driver rewrites the batch and reports
+    // SUCCESS_NO_INFO. If a pair was enrolled concurrently since the lookup, or was archived
+    // meanwhile (the unique key doesn't cover enrollment_archive, so that is checked after the
+    // insert), the chunk is rolled back to a savepoint, the pairs that now exist are found with
+    // a locking read (which sees committed rows, unlike the transaction's snapshot) and the rest
+    // are retried. Any other error propagates.
+    private List<Integer> insertChunk(List<Integer> chunk, Map<Integer, long[]> pending, Timestamp now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) con -> {
+            List<Integer> remaining = new ArrayList<>(chunk);
+            while (!remaining.isEmpty()) {
+                Savepoint savepoint = con.setSavepoint();
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO enrollment (student_id, course_id, status, enrollment_date) VALUES (?, ?, ?, ?)")) {
+                    for (int i : remaining) {
+                        long[] pair = pending.get(i);
+                        ps.setLong(1, pair[0]);
+                        ps.setLong(2, pair[1]);
+                        ps.setString(3, Enrollment.Status.PENDING.name());
+                        ps.setTimestamp(4, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                } catch (SQLException e) {
+                    if (!isDuplicateKey(e)) throw e;
+                    con.rollback(savepoint);
+                    removeExisting(remaining, lockExistingPairs(con, "enrollment", remaining, pending), pending);
+                    continue;
+                }
+
+                Set<List<Long>> archived = lockExistingPairs(con, "enrollment_archive", remaining, pending);
+                if (archived.isEmpty()) {
+                    con.releaseSavepoint(savepoint);
+                    return remaining;
+                }
+                con.rollback(savepoint);
+                removeExisting(remaining, archived, pending);
+            }
+            return remaining;
+        });
+    }
+
+    private static void removeExisting(List<Integer> remaining, Set<List<Long>> existing, Map<Integer, long[]> pending) {
+        boolean removed = remaining.removeIf(i -> {
+            long[] pair = pending.get(i);
+            return existing.contains(List.of(pair[0], pair[1]));
+        });
+        if (!removed) {
+            throw new IllegalStateException("Duplicate enrollment that could not be located");
+        }
+    }
+
+    // table is one of the two fixed names above, never input
+    private static Set<List<Long>> lockExistingPairs(Connection con, String table, List<Integer> rows,
+                                                     Map<Integer, long[]> pending) throws SQLException {
+        Set<Long> students = new LinkedHashSet<>();
+        Set<Long> courses = new LinkedHashSet<>();
+        for (int i : rows) {
+            students.add(pending.get(i)[0]);
+            courses.add(pending.get(i)[1]);
+        }
+        String sql = "SELECT student_id, course_id FROM " + table + " WHERE student_id IN ("
+                + placeholders(students.size()) + ") AND course_id IN (" + placeholders(courses.size()) + ") FOR SHARE";
+        Set<List<Long>> pairs = new HashSet<>();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            int p = 1;
+            for (Long id : students) ps.setLong(p++, id);
+            for (Long id : courses) ps.setLong(p++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    pairs.add(List.of(rs.getLong(1), rs.getLong(2)));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            // MySQL ER_DUP_ENTRY
+            if (t instanceof SQLException sql && sql.getErrorCode() == 1062) return true;
+        }
+        return false;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // Two columns, student then course, with an optional header line. A numeric cell is an id;
+    // otherwise the student cell is an email and the course cell a title.
+    public List<BulkEnrollmentRow> parseCsv(String csv) {
+        if (csv == null || csv.isBlank()) {
+            throw new IllegalArgumentException("CSV body is empty");
+        }
+        List<BulkEnrollmentRow> rows = new ArrayList<>();
+        String[] lines = csv.split("\\r?\\n");
+        boolean first = true;
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            List<String> cells = splitCsvLine(line);
+            if (first) {
+                first = false;
+                if (isHeader(cells)) continue;
+            }
+
+            BulkEnrollmentRow row = new BulkEnrollmentRow();
+            String student = cells.get(0);
+            String course = cells.size() > 1 ? cells.get(1) : "";
+            if (isNumber(student)) row.setStudentId(Long.parseLong(student));
+            else row.setEmail(student);
+            if (isNumber(course)) row.setCourseId(Long.parseLong(course));
+            else row.setCourseTitle(course);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static boolean isHeader(List<String> cells) {
+        return cells.size() == 2
+                && STUDENT_HEADERS.contains(headerName(cells.get(0)))
+                && COURSE_HEADERS.contains(headerName(cells.get(1)));
+    }
+
+    private static String headerName(String cell) {
+        return cell.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+
+    private static boolean isNumber(String s) {
+        return !s.isEmpty() && s.length() < 19 && s.chars().allMatch(Character::isDigit);
+    }
+
+    private static <K, R> List<R> inChunks(Collection<K> keys, Function<Collection<K>, List<R>> query) {
+        List<R> out = new ArrayList<>();
+        List<K> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            out.addAll(query.apply(all.subList(from, Math.min(all.size(), from + IN_CHUNK))));
+        }
+        return out;
+    }
+
+    // Rows of (key, id); the first id wins if a key is not unique
+    private static Map<String, Long> toMap(List<Object[]> rows) {
+        Map<String, Long> map = new HashMap<>();
+        for (Object[] row : rows) {
+            map.putIfAbsent((String) row[0], (Long) row[1]);
+        }
+        return map;
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.trim().isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import za.ac.cput.DTO.CourseMediaDTO;
+import za.ac.cput.repository.CourseRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Image metadata per course, kept in memory so conditional media requests
+// can be answered without going to the database. As in ProfileCache, a load that overlaps
+// an eviction is returned but not cached, so a row read before an image change can't be
+// cached after it.
+@Service
+public class CourseMediaService {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final CourseRepository courseRepository;
+    private final Map<Long, CourseMediaDTO> mediaByCourse = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public CourseMediaService(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    public CourseMediaDTO find(Long courseId) {
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        CourseMediaDTO cached = mediaByCourse.get(courseId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long before = generation.get();
+        CourseMediaDTO media = courseRepository.findMediaById(courseId).orElse(null);
+        if (media != null && media.getImageDigest() != null && generation.get() == before) {
+            if (mediaByCourse.size() >= MAX_ENTRIES) {
+                mediaByCourse.clear();
+            }
+            mediaByCourse.put(courseId, media);
+            // An eviction between the check and the put
+            if (generation.get() != before) {
+                mediaByCourse.remove(courseId, media);
+            }
+        }
+        return media;
+    }
+
+    public void evict(Long courseId) {
+        generation.incrementAndGet();
+        if (courseId != null) {
+            mediaByCourse.remove(courseId);
+        }
+    }
+
+    public static String etag(String digest) {
+        return "\"" + digest + "\"";
+    }
+
+    // Immutable URL: changes whenever the image does, so it can be cached forever
+    public static String imageUrl(Long courseId, String digest) {
+        if (courseId == null || digest == null) return null;
+        return "/courses/media/" + courseId + "/" + digest;
+    }
+}
@@ -1,28 +1,64 @@
 package za.ac.cput.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import za.ac.cput.DTO.CourseSummary;
 import za.ac.cput.domain.Course;
 import za.ac.cput.repository.CourseRepository;
+import za.ac.cput.search.CourseSearchIndex;
+import za.ac.cput.search.CourseTitleCatalogue;
+import za.ac.cput.storage.MediaCache;
+import za.ac.cput.storage.MediaStore;
+import za.ac.cput.storage.StoredMedia;
 
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
 
 @Service
 public class CourseService {
 
+    private static final int ORPHAN_CHUNK = 1000;
+
     private final CourseRepository courseRepository;
+    private final MediaStore mediaStore;
+    private final CourseMediaService courseMediaService;
+    private final ImageVariantService imageVariantService;
+    private final MediaCache mediaCache;
+    private final CourseSearchIndex searchIndex;
+    private final CourseTitleCatalogue titleCatalogue;
+    private final SeatAllocator seatAllocator;
+    private final long orphanGraceMillis;
 
     @Autowired
-    public CourseService(CourseRepository courseRepository) {
+    public CourseService(CourseRepository courseRepository, MediaStore mediaStore,
+                         CourseMediaService courseMediaService, ImageVariantService imageVariantService,
+                         MediaCache mediaCache, CourseSearchIndex searchIndex,
+                         CourseTitleCatalogue titleCatalogue, SeatAllocator seatAllocator,
+                         @Value("${media.orphans.grace-ms:600000}") long orphanGraceMillis) {
         this.courseRepository = courseRepository;
+        this.mediaStore = mediaStore;
+        this.courseMediaService = courseMediaService;
+        this.imageVariantService = imageVariantService;
+        this.mediaCache = mediaCache;
+        this.searchIndex = searchIndex;
+        this.titleCatalogue = titleCatalogue;
+        this.seatAllocator = seatAllocator;
+        this.orphanGraceMillis = orphanGraceMillis;
     }
 
     public Course create(Course course) {
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        searchIndex.index(saved.getId(), saved.getTitle(), saved.getDescription());
+        titleCatalogue.put(saved.getId(), saved.getTitle());
+        imageVariantService.schedule(saved.getImageDigest(), saved.getImageContentType());
+        return saved;
     }
 
     public Course read(Long id) {
@@ -60,15 +96,23 @@ public class CourseService {
             builder.setDescription(course.getDescription());
         }
 
-        if (course.getImage() != null && course.getImage().length > 0) {
-            builder.setImage(course.getImage());
+        if (course.getImageDigest() != null && !course.getImageDigest().equals(existing.getImageDigest())) {
+            builder.setImageDigest(course.getImageDigest())
+                    .setImageSize(course.getImageSize())
+                    .setImageContentType(course.getImageContentType())
+                    .setImageUpdatedAt(Instant.now());
         }
 
-        Course updatedCourse = builder.build();
-        return courseRepository.save(updatedCourse);
+        Course updatedCourse = courseRepository.save(builder.build());
+        courseMediaService.evict(updatedCourse.getId());
+        mediaCache.invalidateCourse(updatedCourse.getId());
+        searchIndex.index(updatedCourse.getId(), updatedCourse.getTitle(), updatedCourse.getDescription());
+        titleCatalogue.put(updatedCourse.getId(), updatedCourse.getTitle());
+        imageVariantService.schedule(updatedCourse.getImageDigest(), updatedCourse.getImageContentType());
+        return updatedCourse;
     }
 
-    public Course updateWithImage(Long id, String title, String description, byte[] image) {
+    public Course updateWithImage(Long id, String title, String description, StoredMedia image) {
         if (id == null) {
             throw new IllegalArgumentException("Course ID cannot be null");
         }
@@ -89,11 +133,20 @@ public class CourseService {
             builder.setDescription(description);
         }
 
-        if (image != null && image.length > 0) {
-            builder.setImage(image);
+        if (image != null && !image.getDigest().equals(existing.getImageDigest())) {
+            builder.setImageDigest(image.getDigest())
+                    .setImageSize(image.getSize())
+                    .setImageContentType(image.getContentType())
+                    .setImageUpdatedAt(Instant.now());
         }
 
-        return courseRepository.save(builder.build());
+        Course updatedCourse = courseRepository.save(builder.build());
+        courseMediaService.evict(updatedCourse.getId());
+        mediaCache.invalidateCourse(updatedCourse.getId());
+        searchIndex.index(updatedCourse.getId(), updatedCourse.getTitle(), updatedCourse.getDescription());
+        titleCatalogue.put(updatedCourse.getId(), updatedCourse.getTitle());
+        imageVariantService.schedule(updatedCourse.getImageDigest(), updatedCourse.getImageContentType());
+        return updatedCourse;
     }
 
     public boolean delete(Long id) {
@@ -101,17 +154,74 @@ public class CourseService {
             throw new IllegalArgumentException("Course ID cannot be null");
         }
 
-        if (courseRepository.existsById(id)) {
+        Course existing = read(id);
+        if (existing != null) {
             courseRepository.deleteById(id);
+            courseMediaService.evict(id);
+            mediaCache.invalidateCourse(id);
+            searchIndex.delete(id);
+            titleCatalogue.remove(id);
+            seatAllocator.forget(id);
             return true;
         }
         return false;
     }
 
+    // Blobs are shared between courses with identical images and outlive failed uploads, so
+    // they are never deleted inline. The sweep derives orphans from the store itself: blobs no
+    // course points at that haven't been stored (or stored again) for the grace period. Being
+    // stateless, it also picks up anything left behind by a restart or a crash.
+    @Scheduled(fixedDelayString = "${media.orphans.sweep-ms:3600000}")
+    public void sweepOrphanedImages() {
+        Instant cutoff = Instant.now().minusMillis(orphanGraceMillis);
+        List<String> digests;
+        try {
+            digests = mediaStore.listDigests();
+        } catch (IOException e) {
+            System.err.println("Failed to list stored images: " + e.getMessage());
+            return;
+        }
+        int deleted = 0;
+        for (int from = 0; from < digests.size(); from += ORPHAN_CHUNK) {
+            List<String> chunk = digests.subList(from, Math.min(digests.size(), from + ORPHAN_CHUNK));
+            Set<String> referenced = new HashSet<>(courseRepository.findImageDigestsIn(chunk));
+            for (String digest : chunk) {
+                if (referenced.contains(digest)) continue;
+                try {
+                    if (mediaStore.deleteIfUnusedSince(digest, cutoff)) deleted++;
+                } catch (IOException e) {
+                    System.err.println("Failed to delete image " + digest + ": " + e.getMessage());
+                }
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("Deleted " + deleted + " orphaned image(s)");
+        }
+    }
+
+    // Null removes the limit
+    public void setCapacity(Long id, Integer capacity) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        seatAllocator.setCapacity(id, capacity);
+    }
+
     public List<Course> getAll() {
         return courseRepository.findAll();
     }
 
+    public List<CourseSummary> getAllSummaries() {
+        return courseRepository.findAllSummaries();
+    }
+
+    public CourseSummary readSummary(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        return courseRepository.findSummaryById(id).orElse(null);
+    }
+
     public Course findByTitle(String title) {
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Course title cannot be null or empty");
@@ -128,13 +238,34 @@ public class CourseService {
     }
 
     public List<Course> findByTitleContaining(String keyword) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            return getAll();
+        return findByTitleContaining(keyword, 0, Integer.MAX_VALUE);
+    }
+
+    // Ranked by relevance, best first
+    public List<Course> findByTitleContaining(String keyword, int offset, int limit) {
+        List<Long> ids = searchIndex.search(keyword, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inRankOrder(ids, courseRepository.findAllById(ids), Course::getId);
+    }
+
+    public List<CourseSummary> searchSummaries(String keyword, int offset, int limit) {
+        List<Long> ids = searchIndex.search(keyword, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inRankOrder(ids, courseRepository.findSummariesByIdIn(ids), CourseSummary::getId);
+    }
+
+    private static <T> List<T> inRankOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
         }
-        // This would require adding a method to your repository
-        // For now, we'll filter manually
-        return getAll().stream()
-                .filter(course -> course.getTitle().toLowerCase().contains(keyword.toLowerCase()))
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 }
\ No newline at end of file
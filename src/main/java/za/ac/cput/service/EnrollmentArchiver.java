@@ -0,0 +1,123 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.ac.cput.domain.Enrollment;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves finished enrollments older than the cutoff from enrollment into enrollment_archive,
+// keeping the hot table and its indexes small. Each batch is its own short transaction
+// (copy, delete, recount the stats for the touched courses) so the job never holds locks on
+// more than batch-size rows at a time. It only moves rows: archived approvals still hold
+// their seats and still count as enrolled, so no business state changes.
+@Service
+public class EnrollmentArchiver {
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final EnrollmentStatsService statsService;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+    private final List<String> statuses;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public EnrollmentArchiver(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                              EnrollmentStatsService statsService,
+                              @Value("${enrollment.archive.enabled:true}") boolean enabled,
+                              @Value("${enrollment.archive.after-days:365}") int afterDays,
+                              @Value("${enrollment.archive.batch-size:500}") int batchSize,
+                              @Value("${enrollment.archive.max-batches-per-run:200}") int maxBatches,
+                              @Value("${enrollment.archive.pause-ms:100}") long pauseMillis,
+                              @Value("${enrollment.archive.statuses:REJECTED}") String statuses) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statsService = statsService;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pauseMillis;
+        // Only settled outcomes; PENDING and WAITLISTED rows are still being worked on
+        this.statuses = Arrays.stream(statuses.split(","))
+                .map(String::trim)
+                .map(s -> Enrollment.Status.valueOf(s.toUpperCase()))
+                .filter(s -> s == Enrollment.Status.APPROVED || s == Enrollment.Status.REJECTED)
+                .map(Enum::name)
+                .toList();
+    }
+
+    @Scheduled(cron = "${enrollment.archive.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    // Returns the number of enrollments archived; 0 if a run is already in progress
+    public int archive() {
+        if (statuses.isEmpty() || !running.compareAndSet(false, true)) return 0;
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(afterDays));
+            int total = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int moved = archiveBatch(cutoff);
+                total += moved;
+                if (moved < batchSize) break;
+                if (pauseMillis > 0) Thread.sleep(pauseMillis);
+            }
+            if (total > 0) {
+                System.out.println("Archived " + total + " enrollment(s) older than " + cutoff);
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(Timestamp cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource("cutoff", cutoff)
+                    .addValue("statuses", statuses)
+                    .addValue("limit", batchSize);
+            List<Long> ids = jdbc.queryForList(
+                    "SELECT id FROM enrollment WHERE enrollment_date < :cutoff AND status IN (:statuses) " +
+                            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", params, Long.class);
+            if (ids.isEmpty()) return 0;
+
+            MapSqlParameterSource byIds = new MapSqlParameterSource("ids", ids);
+            List<Long> courseIds = jdbc.queryForList(
+                    "SELECT DISTINCT course_id FROM enrollment WHERE id IN (:ids)", byIds, Long.class);
+            // A plain INSERT: a row the archive can't take must fail the batch, not be deleted unseen
+            int copied = jdbc.update("INSERT INTO enrollment_archive (id, student_id, course_id, status, enrollment_date, archived_at) " +
+                    "SELECT id, student_id, course_id, status, enrollment_date, CURRENT_TIMESTAMP FROM enrollment " +
+                    "WHERE id IN (:ids)", byIds);
+            if (copied != ids.size()) {
+                throw new IllegalStateException("Archived " + copied + " of " + ids.size() + " enrollment(s); batch rolled back");
+            }
+            int deleted = jdbc.update("DELETE FROM enrollment WHERE id IN (:ids)", byIds);
+            if (deleted != copied) {
+                throw new IllegalStateException("Deleted " + deleted + " of " + copied + " archived enrollment(s); batch rolled back");
+            }
+
+            statsService.recount(courseIds);
+            return deleted;
+        });
+        return moved == null ? 0 : moved;
+    }
+}
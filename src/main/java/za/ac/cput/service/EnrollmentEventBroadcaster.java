@@ -0,0 +1,185 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.ac.cput.DTO.EnrollmentEvent;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fans committed enrollment changes out to SSE subscribers. Connections are async servlet
+// requests, so an idle client holds no thread; each client has a bounded queue that is drained
+// on a virtual thread only while it has events. A ring buffer of recent events lets clients
+// resume with Last-Event-ID.
+@Service
+public class EnrollmentEventBroadcaster {
+
+    private final int bufferSize;
+    private final int maxQueuedPerClient;
+    private final long timeoutMillis;
+
+    private final EnrollmentEvent[] ring;
+    private long nextId = 1;
+    private final Object lock = new Object();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public EnrollmentEventBroadcaster(@Value("${enrollment.events.buffer-size:1024}") int bufferSize,
+                                      @Value("${enrollment.events.max-queued-per-client:256}") int maxQueuedPerClient,
+                                      @Value("${enrollment.events.timeout-ms:1800000}") long timeoutMillis) {
+        this.bufferSize = bufferSize;
+        this.maxQueuedPerClient = maxQueuedPerClient;
+        this.timeoutMillis = timeoutMillis;
+        this.ring = new EnrollmentEvent[bufferSize];
+    }
+
+    // Admins see everything; a student only sees events about their own enrollments, and
+    // gets a RESYNC in place of a bulk event that touched any of them
+    public SseEmitter subscribe(Long userId, boolean admin, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, userId, admin);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null) {
+                long oldest = Math.max(1, nextId - bufferSize);
+                if (lastEventId + 1 < oldest) {
+                    // Missed more than the buffer holds: the client has to refetch
+                    subscriber.queue.add(new Replay(nextId - 1));
+                    subscriber.pending.incrementAndGet();
+                }
+                for (long id = Math.max(lastEventId + 1, oldest); id < nextId; id++) {
+                    EnrollmentEvent event = ring[(int) (id % bufferSize)];
+                    Object item = subscriber.itemFor(event);
+                    if (item != null) {
+                        subscriber.queue.add(item);
+                        subscriber.pending.incrementAndGet();
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        drain(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentEvent(EnrollmentEvent event) {
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (lock) {
+            event.setId(nextId);
+            ring[(int) (nextId % bufferSize)] = event;
+            nextId++;
+            for (Subscriber subscriber : subscribers) {
+                Object item = subscriber.itemFor(event);
+                if (item == null) continue;
+                if (subscriber.pending.incrementAndGet() > maxQueuedPerClient) {
+                    // Too slow to keep up: drop it, it can resume from the buffer
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                    continue;
+                }
+                subscriber.queue.add(item);
+                ready.add(subscriber);
+            }
+        }
+        ready.forEach(this::drain);
+    }
+
+    // Comment lines keep proxies from closing idle streams and reveal dead connections
+    @Scheduled(fixedDelayString = "${enrollment.events.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.queue.add(Heartbeat.INSTANCE);
+            drain(subscriber);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void drain(Subscriber subscriber) {
+        if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) return;
+        senders.execute(() -> {
+            try {
+                Object item;
+                while ((item = subscriber.queue.poll()) != null) {
+                    send(subscriber.emitter, item);
+                    if (!(item instanceof Heartbeat)) subscriber.pending.decrementAndGet();
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.draining.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            drain(subscriber);
+        });
+    }
+
+    private static void send(SseEmitter emitter, Object item) throws IOException {
+        if (item instanceof EnrollmentEvent event) {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.getId()))
+                    .name(event.getType().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+        } else if (item instanceof Replay replay) {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(replay.latestId))
+                    .name("RESYNC")
+                    .data("{}", MediaType.APPLICATION_JSON));
+        } else {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private record Replay(long latestId) {}
+
+    private enum Heartbeat { INSTANCE }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final boolean admin;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long userId, boolean admin) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.admin = admin;
+        }
+
+        // What to send for an event: the event itself, a RESYNC hint, or nothing
+        Object itemFor(EnrollmentEvent event) {
+            if (admin || (event.getStudentId() != null && event.getStudentId().equals(userId))) {
+                return event;
+            }
+            return event.getStudentIds().contains(userId) ? new Replay(event.getId()) : null;
+        }
+    }
+}
@@ -1,37 +1,59 @@
 package za.ac.cput.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import za.ac.cput.DTO.EnrollmentDTO;
+import za.ac.cput.DTO.EnrollmentEvent;
 import za.ac.cput.domain.Enrollment;
 import za.ac.cput.domain.Course;
 import za.ac.cput.domain.User;
+import za.ac.cput.repository.EnrollmentArchiveRepository;
 import za.ac.cput.repository.EnrollmentRepository;
 import za.ac.cput.repository.UserRepository;
 import za.ac.cput.repository.CourseRepository;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class EnrollmentService implements IEnrollmentService {
 
+    private static final int BULK_CHUNK = 1000;
+
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
+    private final EnrollmentStatsService statsService;
+    private final ApplicationEventPublisher events;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentArchiveRepository archiveRepository;
 
     @Autowired
     public EnrollmentService(
             EnrollmentRepository enrollmentRepository,
             UserRepository userRepository,
-            CourseRepository courseRepository
+            CourseRepository courseRepository,
+            EnrollmentStatsService statsService,
+            ApplicationEventPublisher events,
+            SeatAllocator seatAllocator,
+            EnrollmentArchiveRepository archiveRepository
     ) {
         this.enrollmentRepository = enrollmentRepository;
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
+        this.statsService = statsService;
+        this.events = events;
+        this.seatAllocator = seatAllocator;
+        this.archiveRepository = archiveRepository;
     }
 
+    // Transactional itself: the call to enroll below bypasses the proxy
     @Override
+    @Transactional
     public Enrollment create(Enrollment enrollment) {
         if (enrollment.getStudent() == null || enrollment.getStudent().getId() == null) {
             throw new IllegalArgumentException("Student ID must be provided");
@@ -40,30 +62,49 @@ public class EnrollmentService implements IEnrollmentService {
             throw new IllegalArgumentException("Course ID must be provided");
         }
 
-        // Fetch student from DB by ID
-        User student = userRepository.findById(enrollment.getStudent().getId())
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Student not found with ID: " + enrollment.getStudent().getId()
-                ));
-
-        // Fetch course from DB by ID
-        Course course = courseRepository.findById(enrollment.getCourse().getId())
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Course not found with ID: " + enrollment.getCourse().getId()
-                ));
-
-        // Check if already enrolled
-        if (enrollmentRepository.existsByStudentAndCourse(student, course)) {
-            throw new IllegalStateException("Student is already enrolled in this course.");
-        }
+        // References only: the foreign keys reject unknown ids, so no lookups are needed
+        User student = userRepository.getReferenceById(enrollment.getStudent().getId());
+        Course course = courseRepository.getReferenceById(enrollment.getCourse().getId());
+        return enroll(student, course);
+    }
 
-        // Create new enrollment with safe data
+    // A single INSERT. The unique (student_id, course_id) constraint is what rejects
+    // duplicates, so two concurrent requests cannot both get through.
+    @Transactional
+    public Enrollment enroll(User student, Course course) {
         Enrollment newEnrollment = new Enrollment();
         newEnrollment.setStudent(student);
         newEnrollment.setCourse(course);
         newEnrollment.setStatus(Enrollment.Status.PENDING);
 
-        return enrollmentRepository.save(newEnrollment);
+        try {
+            Enrollment saved = enrollmentRepository.saveAndFlush(newEnrollment);
+            // The unique key only covers the hot table. Checked after the insert, which waits
+            // for an archive batch holding the old row, so the read sees that batch's copy.
+            if (archiveRepository.lockCountByStudentAndCourse(student.getId(), course.getId()) > 0) {
+                throw new IllegalStateException("Student is already enrolled in this course.");
+            }
+            statsService.recordInsert(course.getId(), saved.getStatus());
+            events.publishEvent(EnrollmentEvent.single(EnrollmentEvent.Type.CREATED,
+                    saved.getId(), student.getId(), course.getId(), saved.getStatus()));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEnrollment(e)) {
+                throw new IllegalStateException("Student is already enrolled in this course.");
+            }
+            throw new IllegalArgumentException("Student or course not found");
+        }
+    }
+
+    private static boolean isDuplicateEnrollment(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                // MySQL reports the key as "enrollment.uk_..."
+                return violation.getConstraintName().toLowerCase().endsWith(Enrollment.UNIQUE_STUDENT_COURSE);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(Enrollment.UNIQUE_STUDENT_COURSE);
     }
 
     @Override
@@ -72,16 +113,61 @@ public class EnrollmentService implements IEnrollmentService {
     }
 
     @Override
+    @Transactional
     public Enrollment update(Enrollment enrollment) {
-        if (enrollment.getId() != null && enrollmentRepository.existsById(enrollment.getId())) {
-            return enrollmentRepository.save(enrollment);
+        Enrollment current = enrollment.getId() == null ? null
+                : enrollmentRepository.findByIdForUpdate(enrollment.getId()).orElse(null);
+        if (current == null) {
+            throw new IllegalArgumentException("Enrollment not found with id: " + enrollment.getId());
+        }
+        Long previousCourse = current.getCourse().getId();
+        Enrollment.Status previousStatus = current.getStatus();
+        LocalDateTime previousWaitlistedAt = current.getWaitlistedAt();
+        Long courseId = enrollment.getCourse().getId();
+        Enrollment.Status status = enrollment.getStatus();
+        boolean sameCourse = previousCourse.equals(courseId);
+        // Same seat and waitlist rules as changeStatus, applied across a course move too
+        if (previousStatus == Enrollment.Status.APPROVED && !(sameCourse && status == Enrollment.Status.APPROVED)) {
+            seatAllocator.release(previousCourse);
         }
-        throw new IllegalArgumentException("Enrollment not found with id: " + enrollment.getId());
+        if (status == Enrollment.Status.APPROVED && !(sameCourse && previousStatus == Enrollment.Status.APPROVED)
+                && !seatAllocator.tryAllocate(courseId)) {
+            status = Enrollment.Status.WAITLISTED;
+        }
+        if (status == Enrollment.Status.WAITLISTED) {
+            // Keep the place in the queue unless the enrollment is joining it now
+            boolean queued = sameCourse && previousStatus == Enrollment.Status.WAITLISTED && previousWaitlistedAt != null;
+            enrollment.setWaitlistedAt(queued ? previousWaitlistedAt : LocalDateTime.now());
+            if (!queued) {
+                events.publishEvent(new WaitlistCheckEvent(courseId));
+            }
+        } else {
+            enrollment.setWaitlistedAt(null);
+        }
+        enrollment.setStatus(status);
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        statsService.recordDelete(previousCourse, previousStatus);
+        statsService.recordInsert(saved.getCourse().getId(), saved.getStatus());
+        events.publishEvent(EnrollmentEvent.single(EnrollmentEvent.Type.UPDATED,
+                saved.getId(), saved.getStudent().getId(), saved.getCourse().getId(), saved.getStatus()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        enrollmentRepository.deleteById(id);
+        Enrollment previous = enrollmentRepository.findByIdForUpdate(id).orElse(null);
+        if (previous == null) {
+            return;
+        }
+        Long courseId = previous.getCourse().getId();
+        enrollmentRepository.delete(previous);
+        if (previous.getStatus() == Enrollment.Status.APPROVED) {
+            seatAllocator.release(courseId);
+        }
+        statsService.recordDelete(courseId, previous.getStatus());
+        events.publishEvent(EnrollmentEvent.single(EnrollmentEvent.Type.DELETED,
+                id, previous.getStudent().getId(), courseId, previous.getStatus()));
     }
 
     @Override
@@ -106,26 +192,109 @@ public class EnrollmentService implements IEnrollmentService {
 
     @Override
     public Enrollment approveEnrollment(Long id) {
-        Enrollment enrollment = enrollmentRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + id));
-        enrollment.setStatus(Enrollment.Status.APPROVED);
-        return enrollmentRepository.save(enrollment);
+        return changeStatus(id, Enrollment.Status.APPROVED);
     }
 
     @Override
     public Enrollment rejectEnrollment(Long id) {
-        Enrollment enrollment = enrollmentRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + id));
-        enrollment.setStatus(Enrollment.Status.REJECTED);
-        return enrollmentRepository.save(enrollment);
+        return changeStatus(id, Enrollment.Status.REJECTED);
     }
 
     @Override
     public Enrollment resetEnrollment(Long id) {
-        Enrollment enrollment = enrollmentRepository.findById(id)
+        return changeStatus(id, Enrollment.Status.PENDING);
+    }
+
+    @Transactional
+    public Enrollment changeStatus(Long id, Enrollment.Status status) {
+        // Locked until commit, so the status read here is the one the seat change is based on
+        Enrollment enrollment = enrollmentRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Enrollment not found with id: " + id));
-        enrollment.setStatus(Enrollment.Status.PENDING);
-        return enrollmentRepository.save(enrollment);
+        Enrollment.Status previous = enrollment.getStatus();
+        Long courseId = enrollment.getCourse().getId();
+        // Seats follow the APPROVED status; approving into a full course joins its waitlist
+        if (status == Enrollment.Status.APPROVED && previous != Enrollment.Status.APPROVED
+                && !seatAllocator.tryAllocate(courseId)) {
+            status = Enrollment.Status.WAITLISTED;
+        } else if (previous == Enrollment.Status.APPROVED && status != Enrollment.Status.APPROVED) {
+            seatAllocator.release(courseId);
+        }
+        if (status == Enrollment.Status.WAITLISTED && previous != Enrollment.Status.WAITLISTED) {
+            enrollment.setWaitlistedAt(LocalDateTime.now());
+            // Seats may already be free, e.g. when an admin waitlists someone directly
+            events.publishEvent(new WaitlistCheckEvent(courseId));
+        } else if (status != Enrollment.Status.WAITLISTED) {
+            enrollment.setWaitlistedAt(null);
+        }
+        enrollment.setStatus(status);
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        statsService.recordTransition(saved.getCourse().getId(), previous, status);
+        if (previous != status) {
+            events.publishEvent(EnrollmentEvent.single(eventType(status),
+                    saved.getId(), saved.getStudent().getId(), saved.getCourse().getId(), status));
+        }
+        return saved;
+    }
+
+    private static EnrollmentEvent.Type eventType(Enrollment.Status status) {
+        return switch (status) {
+            case APPROVED -> EnrollmentEvent.Type.APPROVED;
+            case REJECTED -> EnrollmentEvent.Type.REJECTED;
+            case PENDING -> EnrollmentEvent.Type.RESET;
+            case WAITLISTED -> EnrollmentEvent.Type.WAITLISTED;
+        };
+    }
+
+    // One UPDATE per chunk of ids, all in a single transaction. Unlike a single approval,
+    // a bulk approval does not spill into the waitlist: if it would oversubscribe any
+    // course, reconcile refuses it and the whole update rolls back with a 409.
+    @Transactional
+    public int updateStatuses(List<Long> ids, Enrollment.Status status) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one enrollment id is required");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int updated = 0;
+        Set<Long> courseIds = new HashSet<>();
+        Set<Long> studentIds = new HashSet<>();
+        for (int from = 0; from < distinct.size(); from += BULK_CHUNK) {
+            List<Long> chunk = distinct.subList(from, Math.min(distinct.size(), from + BULK_CHUNK));
+            courseIds.addAll(enrollmentRepository.findCourseIdsByIdIn(chunk));
+            studentIds.addAll(enrollmentRepository.findStudentIdsByIdIn(chunk, status));
+            updated += enrollmentRepository.updateStatusByIdIn(chunk, status, waitlistedAt(status));
+        }
+        if (updated > 0) {
+            seatAllocator.reconcile(courseIds);
+            statsService.recount(courseIds);
+            events.publishEvent(EnrollmentEvent.bulk(EnrollmentEvent.Type.BULK_STATUS,
+                    courseIds.size() == 1 ? courseIds.iterator().next() : null, status, updated, studentIds));
+        }
+        return updated;
+    }
+
+    // Same all-or-nothing capacity check as the id-based overload
+    @Transactional
+    public int updateStatuses(Enrollment.Status status, Long courseId, Enrollment.Status currentStatus,
+                              LocalDateTime enrolledBefore) {
+        // Refuse an unfiltered update of the whole table
+        if (courseId == null && currentStatus == null && enrolledBefore == null) {
+            throw new IllegalArgumentException("Provide ids or at least one of courseId, currentStatus, enrolledBefore");
+        }
+        List<Long> courseIds = courseId != null
+                ? List.of(courseId)
+                : enrollmentRepository.findCourseIdsByFilter(status, currentStatus, enrolledBefore);
+        List<Long> studentIds = enrollmentRepository.findStudentIdsByFilter(status, courseId, currentStatus, enrolledBefore);
+        int updated = enrollmentRepository.updateStatusByFilter(status, waitlistedAt(status), courseId, currentStatus, enrolledBefore);
+        if (updated > 0) {
+            seatAllocator.reconcile(courseIds);
+            statsService.recount(courseIds);
+            events.publishEvent(EnrollmentEvent.bulk(EnrollmentEvent.Type.BULK_STATUS, courseId, status, updated, studentIds));
+        }
+        return updated;
+    }
+
+    private static LocalDateTime waitlistedAt(Enrollment.Status status) {
+        return status == Enrollment.Status.WAITLISTED ? LocalDateTime.now() : null;
     }
 
     public EnrollmentDTO toDTO(Enrollment enrollment) {
@@ -140,34 +309,67 @@ public class EnrollmentService implements IEnrollmentService {
     }
 
     public List<EnrollmentDTO> getAllDTOs() {
-        return enrollmentRepository.findAll()
-                .stream()
-                .map(this::toDTO)
-                .toList();
+        return getAllDTOs(false);
+    }
+
+    // Archived enrollments are only read when asked for, so normal queries stay on the hot table
+    public List<EnrollmentDTO> getAllDTOs(boolean includeArchived) {
+        List<EnrollmentDTO> enrollments = enrollmentRepository.findAllDTOs();
+        return includeArchived ? merge(enrollments, archiveRepository.findAllDTOs()) : enrollments;
     }
 
     public List<EnrollmentDTO> getEnrollmentsByStudentDTO(Long studentId) {
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
-        return enrollmentRepository.findByStudent(student)
-                .stream()
-                .map(this::toDTO)
-                .toList();
+        return getEnrollmentsByStudentDTO(studentId, false);
+    }
+
+    public List<EnrollmentDTO> getEnrollmentsByStudentDTO(Long studentId, boolean includeArchived) {
+        List<EnrollmentDTO> enrollments = enrollmentRepository.findDTOsByStudentId(studentId);
+        if (includeArchived) {
+            enrollments = merge(enrollments, archiveRepository.findDTOsByStudentId(studentId));
+        }
+        // Only pay for the existence check when there is nothing to return
+        if (enrollments.isEmpty() && !userRepository.existsById(studentId)) {
+            throw new IllegalArgumentException("Student not found with id: " + studentId);
+        }
+        return enrollments;
     }
 
     public List<EnrollmentDTO> getEnrollmentsByCourseDTO(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found with id: " + courseId));
-        return enrollmentRepository.findByCourse(course)
-                .stream()
-                .map(this::toDTO)
-                .toList();
+        return getEnrollmentsByCourseDTO(courseId, false);
+    }
+
+    public List<EnrollmentDTO> getEnrollmentsByCourseDTO(Long courseId, boolean includeArchived) {
+        List<EnrollmentDTO> enrollments = enrollmentRepository.findDTOsByCourseId(courseId);
+        if (includeArchived) {
+            enrollments = merge(enrollments, archiveRepository.findDTOsByCourseId(courseId));
+        }
+        if (enrollments.isEmpty() && !courseRepository.existsById(courseId)) {
+            throw new IllegalArgumentException("Course not found with id: " + courseId);
+        }
+        return enrollments;
     }
 
     public List<EnrollmentDTO> getEnrollmentsByStatusDTO(Enrollment.Status status) {
-        return enrollmentRepository.findByStatus(status)
-                .stream()
-                .map(this::toDTO)
-                .toList();
+        return getEnrollmentsByStatusDTO(status, false);
+    }
+
+    public List<EnrollmentDTO> getEnrollmentsByStatusDTO(Enrollment.Status status, boolean includeArchived) {
+        List<EnrollmentDTO> enrollments = enrollmentRepository.findDTOsByStatus(status);
+        return includeArchived ? merge(enrollments, archiveRepository.findDTOsByStatus(status)) : enrollments;
+    }
+
+    // Both lists are ordered by id; archived rows keep their original ids
+    private static List<EnrollmentDTO> merge(List<EnrollmentDTO> hot, List<EnrollmentDTO> archived) {
+        if (archived.isEmpty()) return hot;
+        List<EnrollmentDTO> merged = new ArrayList<>(hot.size() + archived.size());
+        int i = 0, j = 0;
+        while (i < hot.size() || j < archived.size()) {
+            if (j >= archived.size() || (i < hot.size() && hot.get(i).getId() < archived.get(j).getId())) {
+                merged.add(hot.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
     }
 }
\ No newline at end of file
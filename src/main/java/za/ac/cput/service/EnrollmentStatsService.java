@@ -0,0 +1,126 @@
+package za.ac.cput.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.DTO.CourseEnrollmentStatsDTO;
+import za.ac.cput.domain.Enrollment;
+import za.ac.cput.repository.CourseEnrollmentStatsRepository;
+import za.ac.cput.repository.CourseRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Maintains course_enrollment_stats. Single-row changes apply a delta with an upsert, so
+// concurrent writers only contend on one counter row; bulk changes recount the courses they
+// touched. The record* methods must run inside the caller's transaction so counters and
+// enrollments commit or roll back together.
+@Service
+public class EnrollmentStatsService {
+
+    private static final String UPSERT_DELTA =
+            "INSERT INTO course_enrollment_stats (course_id, pending_count, approved_count, rejected_count, waitlisted_count) " +
+            "VALUES (:courseId, :pending, :approved, :rejected, :waitlisted) " +
+            "ON DUPLICATE KEY UPDATE pending_count = pending_count + VALUES(pending_count), " +
+            "approved_count = approved_count + VALUES(approved_count), " +
+            "rejected_count = rejected_count + VALUES(rejected_count), " +
+            "waitlisted_count = waitlisted_count + VALUES(waitlisted_count)";
+
+    private static final String RECOUNT_SELECT =
+            "INSERT INTO course_enrollment_stats (course_id, pending_count, approved_count, rejected_count, waitlisted_count) " +
+            "SELECT course_id, " +
+            "SUM(status = 'PENDING'), SUM(status = 'APPROVED'), SUM(status = 'REJECTED'), SUM(status = 'WAITLISTED') " +
+            "FROM enrollment ";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CourseEnrollmentStatsRepository statsRepository;
+    private final CourseRepository courseRepository;
+
+    public EnrollmentStatsService(NamedParameterJdbcTemplate jdbc, CourseEnrollmentStatsRepository statsRepository,
+                                  CourseRepository courseRepository) {
+        this.jdbc = jdbc;
+        this.statsRepository = statsRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInsert(Long courseId, Enrollment.Status status) {
+        applyDelta(courseId, status, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelete(Long courseId, Enrollment.Status status) {
+        applyDelta(courseId, status, -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Long courseId, Enrollment.Status from, Enrollment.Status to) {
+        recordTransitions(courseId, from, to, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Long courseId, Enrollment.Status from, Enrollment.Status to, int count) {
+        if (from == to || count == 0) return;
+        MapSqlParameterSource params = new MapSqlParameterSource("courseId", courseId);
+        for (Enrollment.Status column : Enrollment.Status.values()) {
+            int delta = ((column == to ? 1 : 0) - (column == from ? 1 : 0)) * count;
+            params.addValue(parameter(column), delta);
+        }
+        jdbc.update(UPSERT_DELTA, params);
+    }
+
+    // Recomputes the counters of the given courses from the enrollment table
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recount(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) return;
+        MapSqlParameterSource params = new MapSqlParameterSource("courseIds", courseIds);
+        jdbc.update("DELETE FROM course_enrollment_stats WHERE course_id IN (:courseIds)", params);
+        jdbc.update(RECOUNT_SELECT + "WHERE course_id IN (:courseIds) GROUP BY course_id", params);
+    }
+
+    // First start after the table is introduced: seed it, since deltas are only meaningful
+    // on top of correct counts
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (statsRepository.count() == 0) {
+            int courses = rebuild();
+            System.out.println("Seeded enrollment counters for " + courses + " course(s)");
+        }
+    }
+
+    // Reconciles every counter from scratch
+    @Transactional
+    public int rebuild() {
+        jdbc.getJdbcTemplate().update("DELETE FROM course_enrollment_stats");
+        return jdbc.getJdbcTemplate().update(RECOUNT_SELECT + "GROUP BY course_id");
+    }
+
+    // One row per course with enrollments; courses without enrollments are omitted
+    public List<CourseEnrollmentStatsDTO> getAll() {
+        return statsRepository.findAllDTOs();
+    }
+
+    public CourseEnrollmentStatsDTO getForCourse(Long courseId) {
+        return statsRepository.findDTOByCourseId(courseId)
+                .orElseGet(() -> courseRepository.findSummaryById(courseId)
+                        .map(course -> new CourseEnrollmentStatsDTO(course.getId(), course.getTitle(), 0, 0, 0, 0))
+                        .orElseThrow(() -> new IllegalArgumentException("Course not found with id: " + courseId)));
+    }
+
+    private void applyDelta(Long courseId, Enrollment.Status status, int delta) {
+        MapSqlParameterSource params = new MapSqlParameterSource("courseId", courseId);
+        for (Enrollment.Status column : Enrollment.Status.values()) {
+            params.addValue(parameter(column), column == status ? delta : 0);
+        }
+        jdbc.update(UPSERT_DELTA, params);
+    }
+
+    // Named parameter in UPSERT_DELTA for each status column
+    private static String parameter(Enrollment.Status status) {
+        return status.name().toLowerCase();
+    }
+}
@@ -0,0 +1,196 @@
+package za.ac.cput.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import za.ac.cput.storage.MediaStore;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Produces resized renditions of course images in the background so the catalogue
+// does not have to download full-size originals. Until a variant exists the original is served.
+@Service
+public class ImageVariantService {
+
+    // Refuse to decode anything that would need more than ~160 MB of pixels
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final int MAX_TRACKED_DIGESTS = 10_000;
+
+    private final MediaStore mediaStore;
+    private final int[] widths;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ImageVariantService(MediaStore mediaStore,
+                               @Value("${media.variants.widths:320,640,1280}") int[] widths,
+                               @Value("${media.variants.placeholder-width:16}") int placeholderWidth,
+                               @Value("${media.variants.threads:2}") int threads,
+                               @Value("${media.variants.queue-capacity:100}") int queueCapacity) {
+        this.mediaStore = mediaStore;
+
+        // The placeholder is simply the smallest width bucket
+        TreeSet<Integer> sorted = new TreeSet<>();
+        for (int width : widths) sorted.add(width);
+        sorted.add(placeholderWidth);
+        this.widths = sorted.stream().mapToInt(Integer::intValue).toArray();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static String variantName(int width) {
+        return "w" + width;
+    }
+
+    // Queues variant generation for an image; a no-op if it is already done or queued
+    public void schedule(String digest, String contentType) {
+        if (digest == null || !isResizable(contentType)) return;
+        if (completed.contains(digest) || !inFlight.add(digest)) return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(digest, contentType);
+                    if (completed.size() >= MAX_TRACKED_DIGESTS) completed.clear();
+                    completed.add(digest);
+                } catch (Exception e) {
+                    System.err.println("Image variant generation failed for " + digest + ": " + e.getMessage());
+                } finally {
+                    inFlight.remove(digest);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue is full: the original keeps being served and a later request will retry
+            inFlight.remove(digest);
+        }
+    }
+
+    // Smallest ready variant at least as wide as requested, or null to serve the original
+    public Variant select(String digest, String contentType, Integer requestedWidth) {
+        if (requestedWidth == null || requestedWidth <= 0 || !isResizable(contentType)) return null;
+
+        for (int width : widths) {
+            if (width < requestedWidth) continue;
+            String name = variantName(width);
+            Path file = mediaStore.locateVariant(digest, name);
+            if (file != null) {
+                return new Variant(name, file);
+            }
+            // Either not generated yet, or the original is narrower than this bucket
+            schedule(digest, contentType);
+            return null;
+        }
+        return null;
+    }
+
+    private void generate(String digest, String contentType) throws IOException {
+        BufferedImage original = decode(digest);
+        if (original == null) return;
+
+        String format = MediaType.IMAGE_PNG_VALUE.equals(contentType) ? "png" : "jpg";
+        for (int width : widths) {
+            if (width >= original.getWidth()) break;
+            BufferedImage resized = resize(original, width, "png".equals(format));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(resized, format, out);
+            mediaStore.storeVariant(digest, variantName(width), out.toByteArray());
+        }
+    }
+
+    private BufferedImage decode(String digest) throws IOException {
+        try (InputStream in = mediaStore.open(digest);
+             ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    System.err.println("Skipping variants for " + digest + ": image too large (" + pixels + " px)");
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halve repeatedly, then finish with one bilinear step; keeps quality close to
+    // area averaging at a fraction of the cost
+    private BufferedImage resize(BufferedImage source, int targetWidth, boolean keepAlpha) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private boolean isResizable(String contentType) {
+        return MediaType.IMAGE_JPEG_VALUE.equals(contentType) || MediaType.IMAGE_PNG_VALUE.equals(contentType);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static class Variant {
+        private final String name;
+        private final Path file;
+
+        public Variant(String name, Path file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import za.ac.cput.DTO.ProfileDTO;
+import za.ac.cput.repository.AdminRepository;
+import za.ac.cput.repository.UserRepository;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Read-through cache of user and admin profile projections for the /profile endpoints. The
+// update and delete endpoints evict entries. A load that overlaps an eviction is returned
+// but not cached, so a profile read just before an update can't be cached after it.
+@Service
+public class ProfileCache {
+
+    private final UserRepository userRepository;
+    private final AdminRepository adminRepository;
+    private final int maxEntries;
+    private final Map<Long, ProfileDTO> users = new ConcurrentHashMap<>();
+    private final Map<Long, ProfileDTO> admins = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProfileCache(UserRepository userRepository, AdminRepository adminRepository,
+                        @Value("${profiles.cache.max-entries:5000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.adminRepository = adminRepository;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public ProfileDTO getUser(Long id) {
+        return get(users, id, key -> userRepository.findProfileById(key).orElse(null));
+    }
+
+    public ProfileDTO getAdmin(Long id) {
+        return get(admins, id, key -> adminRepository.findProfileById(key).orElse(null));
+    }
+
+    public void evictUser(Long id) {
+        generation.incrementAndGet();
+        if (id != null) users.remove(id);
+    }
+
+    public void evictAdmin(Long id) {
+        generation.incrementAndGet();
+        if (id != null) admins.remove(id);
+    }
+
+    private ProfileDTO get(Map<Long, ProfileDTO> cache, Long id, Function<Long, ProfileDTO> loader) {
+        if (id == null) return null;
+        ProfileDTO cached = cache.get(id);
+        if (cached != null) return cached;
+
+        long before = generation.get();
+        ProfileDTO loaded = loader.apply(id);
+        // Missing accounts aren't cached; they may be created with this id later
+        if (loaded != null && generation.get() == before) {
+            if (cache.size() >= maxEntries) {
+                shrink(cache);
+            }
+            cache.put(id, loaded);
+            // An eviction between the check and the put
+            if (generation.get() != before) {
+                cache.remove(id, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Drops an arbitrary tenth; simpler than LRU and good enough for a cache this small
+    private void shrink(Map<Long, ProfileDTO> cache) {
+        Iterator<Long> keys = cache.keySet().iterator();
+        int toRemove = Math.max(1, maxEntries / 10);
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.domain.RefreshToken;
+import za.ac.cput.repository.RefreshTokenRepository;
+import za.ac.cput.util.Helper;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque refresh tokens, stored hashed. Each one can be used once: refreshing marks it used
+// and issues its successor in the same family. A second use of the same token (a stolen
+// copy racing the real client) revokes the whole family, logging both out.
+@Service
+public class RefreshTokenService {
+
+    public record Rotation(RefreshToken.AccountType accountType, Long accountId, String refreshToken) {}
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository repository;
+    private final Duration ttl;
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               @Value("${security.jwt.refresh-ttl-days:14}") long ttlDays) {
+        this.repository = repository;
+        this.ttl = Duration.ofDays(ttlDays);
+    }
+
+    public String issue(RefreshToken.AccountType accountType, Long accountId) {
+        return issue(accountType, accountId, UUID.randomUUID().toString());
+    }
+
+    // The revocations must survive the IllegalArgumentException that reports them
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public Rotation rotate(String rawToken) {
+        if (Helper.isNullOrEmpty(rawToken)) {
+            throw new IllegalArgumentException("Refresh token is required");
+        }
+        RefreshToken token = repository.findByTokenHash(Helper.sha256Hex(rawToken))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new IllegalArgumentException("Refresh token has expired");
+        }
+        if (token.getRevokedAt() != null || repository.markUsed(token.getId(), now) == 0) {
+            repository.revokeFamily(token.getFamilyId(), now);
+            throw new IllegalArgumentException("Refresh token has already been used");
+        }
+        String next = issue(token.getAccountType(), token.getAccountId(), token.getFamilyId());
+        return new Rotation(token.getAccountType(), token.getAccountId(), next);
+    }
+
+    // Logout: ends the session the token belongs to
+    @Transactional
+    public void revoke(String rawToken) {
+        if (Helper.isNullOrEmpty(rawToken)) return;
+        repository.findByTokenHash(Helper.sha256Hex(rawToken))
+                .ifPresent(token -> repository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    // Every session of the account, e.g. after a password or role change
+    @Transactional
+    public void revokeAll(RefreshToken.AccountType accountType, Long accountId) {
+        repository.revokeAllForAccount(accountType, accountId, Instant.now());
+    }
+
+    @Scheduled(cron = "${security.jwt.refresh-purge-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        repository.deleteExpired(Instant.now());
+    }
+
+    private String issue(RefreshToken.AccountType accountType, Long accountId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = Instant.now();
+        repository.save(new RefreshToken(Helper.sha256Hex(rawToken), accountType, accountId, familyId,
+                now, now.plus(ttl)));
+        return rawToken;
+    }
+}
@@ -0,0 +1,141 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import za.ac.cput.repository.CourseRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Seats on capacity-limited courses. The conditional UPDATE on course.seats_taken is the
+// authority; in front of it sits a per-course counter of remaining seats so that, once a
+// course is full, further approvals are refused without queueing on the course row lock.
+// The counter can only refuse early, never grant, and is reloaded after a short TTL so it
+// converges with changes made by other instances or rolled-back transactions.
+@Service
+public class SeatAllocator {
+
+    private final CourseRepository courseRepository;
+    private final long ttlMillis;
+    private final ApplicationEventPublisher events;
+    private final Map<Long, Seats> seats = new ConcurrentHashMap<>();
+
+    public SeatAllocator(CourseRepository courseRepository, ApplicationEventPublisher events,
+                         @Value("${enrollment.seats.cache-ttl-ms:5000}") long ttlMillis) {
+        this.courseRepository = courseRepository;
+        this.events = events;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void allocate(Long courseId) {
+        if (!tryAllocate(courseId)) {
+            throw new IllegalStateException("Course is full");
+        }
+    }
+
+    // False when the course is full. Returns rather than throws, so a caller can fall back
+    // (e.g. to the waitlist) without its transaction being marked rollback-only.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryAllocate(Long courseId) {
+        Seats counter = counter(courseId);
+        if (counter != null && counter.remaining.getAndDecrement() <= 0) {
+            counter.remaining.incrementAndGet();
+            return false;
+        }
+        if (courseRepository.allocateSeat(courseId) == 0) {
+            if (counter != null) counter.remaining.set(0);
+            return false;
+        }
+        return true;
+    }
+
+    // Several seats at once, for waitlist promotion; all or nothing
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryAllocate(Long courseId, int count) {
+        if (courseRepository.allocateSeats(courseId, count) == 0) {
+            seats.remove(courseId);
+            return false;
+        }
+        Seats counter = seats.get(courseId);
+        if (counter != null) counter.remaining.addAndGet(-count);
+        return true;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long courseId) {
+        if (courseRepository.releaseSeat(courseId) > 0) {
+            Seats counter = seats.get(courseId);
+            if (counter != null) counter.remaining.incrementAndGet();
+            events.publishEvent(new WaitlistCheckEvent(courseId));
+        }
+    }
+
+    // After a bulk status change: recount from the enrollments, failing (and so rolling the
+    // caller back) if any capacity-limited course would end up oversubscribed
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reconcile(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) return;
+        courseRepository.recountSeats(courseIds);
+        courseIds.forEach(seats::remove);
+        if (courseRepository.countOverCapacity(courseIds) > 0) {
+            throw new IllegalStateException("Not enough seats left to approve these enrollments");
+        }
+        courseIds.forEach(courseId -> events.publishEvent(new WaitlistCheckEvent(courseId)));
+    }
+
+    @Transactional
+    public void setCapacity(Long courseId, Integer capacity) {
+        if (capacity != null && capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        if (courseRepository.updateCapacity(courseId, capacity) == 0) {
+            throw new IllegalArgumentException("Course not found with id: " + courseId);
+        }
+        // Approvals made before the course had a capacity were not counted
+        courseRepository.recountSeats(List.of(courseId));
+        seats.remove(courseId);
+        events.publishEvent(new WaitlistCheckEvent(courseId));
+    }
+
+    public void forget(Long courseId) {
+        seats.remove(courseId);
+    }
+
+    // Null for courses without a capacity, which never run out
+    private Seats counter(Long courseId) {
+        long now = System.currentTimeMillis();
+        Seats counter = seats.get(courseId);
+        if (counter != null && counter.loadedAt + ttlMillis > now) {
+            return counter.unlimited ? null : counter;
+        }
+
+        List<Object[]> rows = courseRepository.findSeats(courseId);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Course not found with id: " + courseId);
+        }
+        Integer capacity = (Integer) rows.get(0)[0];
+        int taken = (Integer) rows.get(0)[1];
+        counter = new Seats(capacity == null, capacity == null ? 0 : capacity - taken, now);
+        seats.put(courseId, counter);
+        return counter.unlimited ? null : counter;
+    }
+
+    private static class Seats {
+        private final boolean unlimited;
+        private final AtomicInteger remaining;
+        private final long loadedAt;
+
+        Seats(boolean unlimited, int remaining, long loadedAt) {
+            this.unlimited = unlimited;
+            this.remaining = new AtomicInteger(remaining);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package za.ac.cput.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import za.ac.cput.domain.RevokedToken;
+import za.ac.cput.repository.RevokedTokenRepository;
+import za.ac.cput.util.BloomFilter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked access-token ids, checked on every authenticated request without touching the
+// database. A Bloom filter answers the common case (not revoked) in a few bit reads; only
+// its rare positives go to the exact set. Revocations are written through to revoked_token
+// and loaded back at startup; rows are dropped once the token would have expired anyway.
+@Service
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository repository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository repository,
+                               @Value("${security.jwt.revocation.expected-entries:100000}") int expectedEntries,
+                               @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    // Before the web server starts, so no request is ever checked against an empty list
+    @PostConstruct
+    public void load() {
+        for (RevokedToken token : repository.findByExpiresAtAfter(Instant.now())) {
+            revoked.put(token.getJti(), token.getExpiresAt());
+        }
+        rebuildFilter();
+    }
+
+    public boolean isRevoked(String jti) {
+        return filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) return;
+        repository.save(new RevokedToken(jti, expiresAt));
+        // Map first, so a concurrent rebuild either sees the id or we add to the new filter
+        revoked.put(jti, expiresAt);
+        filter.add(jti);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Bloom filters can't forget, so expired ids are dropped by building a fresh one
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-ms:300000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        repository.deleteExpired(now);
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuildFilter();
+    }
+
+    private void rebuildFilter() {
+        BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(fresh::add);
+        filter = fresh;
+        // Ids revoked while the new filter was being filled
+        revoked.keySet().forEach(fresh::add);
+    }
+}
@@ -0,0 +1,6 @@
+package za.ac.cput.service;
+
+// Published when a course may have both free seats and a waitlist: a seat was released,
+// the capacity changed, or someone joined the waitlist
+public record WaitlistCheckEvent(Long courseId) {
+}
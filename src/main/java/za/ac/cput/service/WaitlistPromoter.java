@@ -0,0 +1,142 @@
+package za.ac.cput.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.ac.cput.DTO.EnrollmentEvent;
+import za.ac.cput.domain.Enrollment;
+import za.ac.cput.repository.CourseRepository;
+import za.ac.cput.repository.EnrollmentRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves the head of a course's waitlist to APPROVED when seats free up. Triggered by
+// WaitlistCheckEvents once their transaction commits, never by scanning enrollments. Courses
+// are coalesced into a pending set and handled by one background thread, each batch taking
+// its seats with a single conditional UPDATE in its own transaction.
+@Service
+public class WaitlistPromoter {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentStatsService statsService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "waitlist-promoter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WaitlistPromoter(EnrollmentRepository enrollmentRepository, CourseRepository courseRepository,
+                            SeatAllocator seatAllocator, EnrollmentStatsService statsService,
+                            ApplicationEventPublisher events, PlatformTransactionManager transactionManager,
+                            @Value("${enrollment.waitlist.batch-size:50}") int batchSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.seatAllocator = seatAllocator;
+        this.statsService = statsService;
+        this.events = events;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWaitlistCheck(WaitlistCheckEvent event) {
+        if (event.courseId() == null) return;
+        pending.add(event.courseId());
+        schedule();
+    }
+
+    // Picks up seats freed while the application was down
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkAllWaitlists() {
+        pending.addAll(enrollmentRepository.findCourseIdsWithWaitlist());
+        schedule();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void schedule() {
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Iterator<Long> it = pending.iterator();
+            while (it.hasNext()) {
+                Long courseId = it.next();
+                it.remove();
+                try {
+                    // Keep going while whole batches are promoted; a short batch means the
+                    // seats or the waitlist ran out
+                    while (promoteBatch(courseId) == batchSize) {
+                        // next batch
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Waitlist promotion failed for course " + courseId + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // Courses added after the iterator passed them
+        schedule();
+    }
+
+    private int promoteBatch(Long courseId) {
+        Integer promoted = transactionTemplate.execute(status -> {
+            List<Object[]> seats = courseRepository.findSeats(courseId);
+            if (seats.isEmpty()) return 0;
+            Integer capacity = (Integer) seats.get(0)[0];
+            int taken = (Integer) seats.get(0)[1];
+            int free = capacity == null ? batchSize : Math.min(batchSize, capacity - taken);
+            if (free <= 0) return 0;
+
+            List<Object[]> head = enrollmentRepository.lockWaitlistHead(courseId, free);
+            if (head.isEmpty()) return 0;
+            if (!seatAllocator.tryAllocate(courseId, head.size())) {
+                // Seats went elsewhere since they were read; look again shortly
+                pending.add(courseId);
+                return 0;
+            }
+
+            List<Long> ids = new ArrayList<>(head.size());
+            for (Object[] row : head) {
+                ids.add(((Number) row[0]).longValue());
+            }
+            int updated = enrollmentRepository.promoteWaitlisted(ids);
+            statsService.recordTransitions(courseId, Enrollment.Status.WAITLISTED, Enrollment.Status.APPROVED, updated);
+            for (Object[] row : head) {
+                events.publishEvent(EnrollmentEvent.single(EnrollmentEvent.Type.APPROVED,
+                        ((Number) row[0]).longValue(), ((Number) row[1]).longValue(), courseId,
+                        Enrollment.Status.APPROVED));
+            }
+            return updated;
+        });
+        return promoted == null ? 0 : promoted;
+    }
+}
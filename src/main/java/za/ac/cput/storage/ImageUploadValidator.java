@@ -0,0 +1,63 @@
+package za.ac.cput.storage;
+
+import org.springframework.http.MediaType;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Checks an upload against its actual bytes rather than the client-supplied content type.
+// The signature is peeked from the head of the stream and the size is enforced as it is read,
+// so nothing has to be buffered beyond a fixed-size window.
+public final class ImageUploadValidator {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ImageUploadValidator() {}
+
+    public static InputStream open(InputStream raw, long maxBytes) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        in.mark(MediaTypeSniffer.HEADER_LENGTH);
+        byte[] header = in.readNBytes(MediaTypeSniffer.HEADER_LENGTH);
+        in.reset();
+
+        String type = MediaTypeSniffer.sniff(header, header.length);
+        if (!MediaType.IMAGE_JPEG_VALUE.equals(type) && !MediaType.IMAGE_PNG_VALUE.equals(type)) {
+            in.close();
+            throw new IllegalArgumentException("Only JPEG and PNG images are allowed.");
+        }
+        return new SizeLimitedInputStream(in, maxBytes);
+    }
+
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) advance(n);
+            return n;
+        }
+
+        private void advance(long n) {
+            count += n;
+            if (count > maxBytes) {
+                throw new IllegalArgumentException("Image size must be less than " + (maxBytes / (1024 * 1024)) + "MB.");
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package za.ac.cput.storage;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// One-off move of course images from the old course.image LONGBLOB column into the MediaStore.
+// Enable with media.migrate-legacy-images=true, run once, then switch it off again.
+@Component
+@ConditionalOnProperty(name = "media.migrate-legacy-images", havingValue = "true")
+public class LegacyCourseImageMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MediaStore mediaStore;
+
+    public LegacyCourseImageMigration(JdbcTemplate jdbcTemplate, MediaStore mediaStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mediaStore = mediaStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfillContentTypes();
+
+        if (!legacyColumnExists()) {
+            System.out.println("Legacy image migration: course.image column not present, nothing to do");
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM course WHERE image IS NOT NULL", Long.class);
+        System.out.println("Legacy image migration: " + ids.size() + " course image(s) to move");
+
+        int moved = 0;
+        for (Long id : ids) {
+            // One row at a time so only a single image is ever held by the driver
+            StoredMedia stored = jdbcTemplate.query("SELECT image FROM course WHERE id = ?", rs -> {
+                if (!rs.next()) return null;
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    return in == null ? null : mediaStore.store(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to move image for course " + id, e);
+                }
+            }, id);
+
+            if (stored == null) continue;
+            jdbcTemplate.update(
+                    "UPDATE course SET image_digest = ?, image_size = ?, image_content_type = ?, " +
+                            "image_updated_at = CURRENT_TIMESTAMP, image = NULL WHERE id = ?",
+                    stored.getDigest(), stored.getSize(), stored.getContentType(), id);
+            moved++;
+        }
+        System.out.println("Legacy image migration: moved " + moved + " image(s)");
+
+        Integer remaining = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM course WHERE image IS NOT NULL", Integer.class);
+        if (remaining != null && remaining == 0) {
+            jdbcTemplate.execute("ALTER TABLE course DROP COLUMN image");
+            System.out.println("Legacy image migration: dropped course.image column");
+        }
+    }
+
+    // Rows moved before content types and timestamps were recorded: sniff them once from the store
+    private void backfillContentTypes() {
+        List<String> digests = jdbcTemplate.queryForList(
+                "SELECT DISTINCT image_digest FROM course WHERE image_digest IS NOT NULL AND image_content_type IS NULL",
+                String.class);
+        for (String digest : digests) {
+            if (!mediaStore.exists(digest)) continue;
+            byte[] header;
+            try (InputStream in = mediaStore.open(digest)) {
+                header = in.readNBytes(MediaTypeSniffer.HEADER_LENGTH);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read image " + digest, e);
+            }
+            jdbcTemplate.update("UPDATE course SET image_content_type = ? WHERE image_digest = ?",
+                    MediaTypeSniffer.sniff(header, header.length), digest);
+        }
+        if (!digests.isEmpty()) {
+            System.out.println("Legacy image migration: recorded content type for " + digests.size() + " image(s)");
+        }
+        jdbcTemplate.update("UPDATE course SET image_updated_at = CURRENT_TIMESTAMP " +
+                "WHERE image_digest IS NOT NULL AND image_updated_at IS NULL");
+    }
+
+    private boolean legacyColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'image'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,192 @@
+package za.ac.cput.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+public class LocalMediaStore implements MediaStore {
+
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final Pattern VARIANT_PATTERN = Pattern.compile("^[a-z0-9]{1,32}$");
+    private static final int BUFFER_SIZE = 8192;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final Path tmp;
+    // Per-digest locks (striped) around publishing and deleting a blob
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public LocalMediaStore(@Value("${media.storage.root:media}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(this.tmp);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public StoredMedia store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest sha256 = newDigest();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] header = new byte[MediaTypeSniffer.HEADER_LENGTH];
+            int headerLength = 0;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), sha256)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    if (headerLength < header.length) {
+                        int n = Math.min(read, header.length - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, n);
+                        headerLength += n;
+                    }
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            Path target = resolve(digest);
+            synchronized (lockFor(digest)) {
+                if (Files.exists(target)) {
+                    // Identical bytes are already stored; the new modified time tells
+                    // deleteIfUnusedSince the blob is wanted again
+                    Files.deleteIfExists(temp);
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // A concurrent upload of the same bytes won the race
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            }
+            return new StoredMedia(digest, size, MediaTypeSniffer.sniff(header, headerLength));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String digest) throws IOException {
+        return Files.newInputStream(resolve(digest));
+    }
+
+    @Override
+    public Path locate(String digest) {
+        if (!exists(digest)) return null;
+        return resolve(digest);
+    }
+
+    @Override
+    public boolean exists(String digest) {
+        return digest != null && DIGEST_PATTERN.matcher(digest).matches() && Files.exists(resolve(digest));
+    }
+
+    @Override
+    public List<String> listDigests() throws IOException {
+        // Originals sit two directories down and are named by their digest alone
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> DIGEST_PATTERN.matcher(name).matches())
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean delete(String digest) throws IOException {
+        Path original = resolve(digest);
+        if (Files.isDirectory(original.getParent())) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(), digest + ".*")) {
+                for (Path variant : variants) {
+                    Files.deleteIfExists(variant);
+                }
+            }
+        }
+        return Files.deleteIfExists(original);
+    }
+
+    @Override
+    public boolean deleteIfUnusedSince(String digest, Instant cutoff) throws IOException {
+        Path original = resolve(digest);
+        synchronized (lockFor(digest)) {
+            try {
+                if (Files.getLastModifiedTime(original).toInstant().isAfter(cutoff)) {
+                    return false;
+                }
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            return delete(digest);
+        }
+    }
+
+    @Override
+    public void storeVariant(String digest, String variant, byte[] content) throws IOException {
+        Path target = resolveVariant(digest, variant);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tmp, "variant-", ".part");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public Path locateVariant(String digest, String variant) {
+        if (!exists(digest)) return null;
+        Path path = resolveVariant(digest, variant);
+        return Files.exists(path) ? path : null;
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), locks.length)];
+    }
+
+    // Fan blobs out over two directory levels (ab/cd/abcd...) to keep directories small
+    private Path resolve(String digest) {
+        if (digest == null || !DIGEST_PATTERN.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Invalid media digest: " + digest);
+        }
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private Path resolveVariant(String digest, String variant) {
+        if (variant == null || !VARIANT_PATTERN.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid media variant: " + variant);
+        }
+        Path original = resolve(digest);
+        return original.resolveSibling(digest + "." + variant);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
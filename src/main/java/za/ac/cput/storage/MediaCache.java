@@ -0,0 +1,238 @@
+package za.ac.cput.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hot course images held in direct (off-heap) buffers under a fixed byte budget.
+// Admission and eviction are frequency based: a small count-min sketch remembers how often
+// each key was asked for, a newcomer only gets in once it has been seen more than once, and
+// it only displaces an entry that is used less often than itself.
+@Component
+public class MediaCache {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int ADMIT_AFTER = 2;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Map<String, ByteBuffer> entries = new ConcurrentHashMap<>();
+    // usedBytes includes space reserved for loads in progress
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    // Guarded by this. Cached keys in an array so eviction can sample them at random, and keys
+    // being read from disk so concurrent misses on the same key don't each load it.
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> keyIndex = new HashMap<>();
+    private final Set<String> loading = new HashSet<>();
+
+    private final AtomicIntegerArray sketch = new AtomicIntegerArray(SKETCH_DEPTH * SKETCH_WIDTH);
+    private final AtomicLong sketchAdditions = new AtomicLong();
+    private final long sketchResetAfter;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MediaCache(@Value("${media.cache.max-bytes:67108864}") long maxBytes,
+                      @Value("${media.cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.sketchResetAfter = 10L * SKETCH_WIDTH;
+    }
+
+    public static String key(Long courseId, String digest, String variant) {
+        return courseId + ":" + digest + (variant != null ? ":" + variant : "");
+    }
+
+    // Read-only view of the cached bytes, or null on a miss
+    public ByteBuffer get(String key) {
+        recordAccess(key);
+        ByteBuffer buffer = entries.get(key);
+        if (buffer == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.duplicate();
+    }
+
+    // Loads the file into the cache if its access frequency earns it a place.
+    // Returns the cached view, or null if the caller should serve from disk.
+    public ByteBuffer admit(String key, Path file, long size) throws IOException {
+        if (maxBytes <= 0 || size <= 0 || size > maxEntryBytes || size > maxBytes) return null;
+        int frequency = frequency(key);
+        if (frequency < ADMIT_AFTER) return null;
+
+        // Decide admission and reserve the space before allocating anything
+        synchronized (this) {
+            ByteBuffer cached = entries.get(key);
+            if (cached != null) return cached.duplicate();
+            if (loading.contains(key)) return null;
+            if (!makeRoom(size, frequency)) return null;
+            usedBytes.addAndGet(size);
+            loading.add(key);
+        }
+
+        ByteBuffer readOnly = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) break;
+                }
+            }
+            if (!buffer.hasRemaining()) { // otherwise the file is shorter than expected
+                buffer.flip();
+                readOnly = buffer.asReadOnlyBuffer();
+            }
+        } finally {
+            synchronized (this) {
+                // Gone from loading if the course was invalidated meanwhile; don't cache it then
+                boolean stillWanted = loading.remove(key);
+                if (readOnly != null && stillWanted) {
+                    entries.put(key, readOnly);
+                    addKey(key);
+                } else {
+                    usedBytes.addAndGet(-size);
+                }
+            }
+        }
+        return readOnly != null ? readOnly.duplicate() : null;
+    }
+
+    public void invalidateCourse(Long courseId) {
+        if (courseId == null) return;
+        String prefix = courseId + ":";
+        synchronized (this) {
+            Iterator<Map.Entry<String, ByteBuffer>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, ByteBuffer> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    usedBytes.addAndGet(-entry.getValue().capacity());
+                    removeKey(entry.getKey());
+                    it.remove();
+                }
+            }
+            // The loader releases the reservation when it sees the key gone
+            loading.removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("entries", entries.size());
+        stats.put("usedBytes", usedBytes.get());
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    // Caller holds the lock. Evicts the least frequently used of a random sample of entries
+    // until the newcomer fits; gives up if that victim is used at least as often as the newcomer.
+    private boolean makeRoom(long size, int candidateFrequency) {
+        while (usedBytes.get() + size > maxBytes) {
+            if (keys.isEmpty()) return false; // the budget is held by loads in progress
+            String victim = null;
+            int victimFrequency = Integer.MAX_VALUE;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int n = Math.min(EVICTION_SAMPLE, keys.size()); n > 0; n--) {
+                String key = keys.get(random.nextInt(keys.size()));
+                int frequency = frequency(key);
+                if (frequency < victimFrequency) {
+                    victim = key;
+                    victimFrequency = frequency;
+                }
+            }
+            if (victim == null || victimFrequency >= candidateFrequency) return false;
+
+            ByteBuffer removed = entries.remove(victim);
+            removeKey(victim);
+            if (removed != null) {
+                usedBytes.addAndGet(-removed.capacity());
+                evictions.increment();
+            }
+        }
+        return true;
+    }
+
+    // Caller holds the lock
+    private void addKey(String key) {
+        if (keyIndex.putIfAbsent(key, keys.size()) == null) {
+            keys.add(key);
+        }
+    }
+
+    // Caller holds the lock. Swap-remove keeps it O(1).
+    private void removeKey(String key) {
+        Integer index = keyIndex.remove(key);
+        if (index == null) return;
+        String last = keys.remove(keys.size() - 1);
+        if (index < keys.size()) {
+            keys.set(index, last);
+            keyIndex.put(last, index);
+        }
+    }
+
+    private void recordAccess(String key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int index = slot(hash, row);
+            if (sketch.get(index) < Integer.MAX_VALUE) sketch.incrementAndGet(index);
+        }
+        if (sketchAdditions.incrementAndGet() >= sketchResetAfter) {
+            age();
+        }
+    }
+
+    private int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch.get(slot(hash, row)));
+        }
+        return min;
+    }
+
+    // Halve every counter so yesterday's popular images give way to today's
+    private void age() {
+        sketchAdditions.set(0);
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.set(i, sketch.get(i) >>> 1);
+        }
+    }
+
+    private int slot(int hash, int row) {
+        int h = hash * (0x9E3779B9 + 2 * row + 1);
+        return row * SKETCH_WIDTH + ((h >>> 16) & (SKETCH_WIDTH - 1));
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
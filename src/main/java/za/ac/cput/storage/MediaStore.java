@@ -0,0 +1,37 @@
+package za.ac.cput.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+// Content-addressed blob storage: every blob is keyed by the SHA-256 of its bytes,
+// so storing the same upload twice only keeps one copy.
+public interface MediaStore {
+    StoredMedia store(InputStream content) throws IOException;
+
+    InputStream open(String digest) throws IOException;
+
+    // File backing the blob, or null if the store is not file based or the blob is missing.
+    // Lets the media endpoint hand the file straight to the socket.
+    Path locate(String digest);
+
+    boolean exists(String digest);
+
+    // Digests of every stored original (not variants or uploads in progress)
+    List<String> listDigests() throws IOException;
+
+    // Removes the blob and any variants stored next to it
+    boolean delete(String digest) throws IOException;
+
+    // Deletes the blob only if it has not been stored (or stored again) since the cutoff.
+    // Atomic with respect to store, so an upload of the same bytes either keeps the blob
+    // or writes it back.
+    boolean deleteIfUnusedSince(String digest, Instant cutoff) throws IOException;
+
+    // Derived renditions (e.g. resized images) kept alongside the original blob
+    void storeVariant(String digest, String variant, byte[] content) throws IOException;
+
+    Path locateVariant(String digest, String variant);
+}
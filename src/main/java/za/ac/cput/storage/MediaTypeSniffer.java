@@ -0,0 +1,22 @@
+package za.ac.cput.storage;
+
+import org.springframework.http.MediaType;
+
+public final class MediaTypeSniffer {
+
+    // Enough bytes to recognise every signature we check below
+    public static final int HEADER_LENGTH = 8;
+
+    private MediaTypeSniffer() {}
+
+    public static String sniff(byte[] header, int length) {
+        if (length >= 3 && header[0] == (byte) 0xFF && header[1] == (byte) 0xD8 && header[2] == (byte) 0xFF) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (length >= 8 && header[0] == (byte) 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+}
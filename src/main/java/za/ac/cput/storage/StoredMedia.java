@@ -0,0 +1,50 @@
+package za.ac.cput.storage;
+
+import java.util.Objects;
+
+public class StoredMedia {
+    private final String digest;
+    private final long size;
+    private final String contentType;
+
+    public StoredMedia(String digest, long size, String contentType) {
+        this.digest = digest;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StoredMedia that = (StoredMedia) o;
+        return size == that.size && Objects.equals(digest, that.digest)
+                && Objects.equals(contentType, that.contentType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(digest, size, contentType);
+    }
+
+    @Override
+    public String toString() {
+        return "StoredMedia{" +
+                "digest='" + digest + '\'' +
+                ", size=" + size +
+                ", contentType='" + contentType + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package za.ac.cput.util;
+
+import java.security.Principal;
+
+// Principal set by JwtAuthenticationFilter, so controllers get the caller's id and role
+// without touching the token again. getName() stays the email, as before.
+public record AuthenticatedUser(Long userId, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
@@ -1,5 +1,9 @@
 package za.ac.cput.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -12,6 +16,16 @@ public class Helper {
         return UUID.randomUUID().toString();
     }
 
+    // Hex SHA-256, for storing or keying on secrets (tokens) without keeping the raw value
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     public static boolean isValidEmail(String email) {
         String regexPattern = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
         return Pattern.compile(regexPattern).matcher(email).matches();
@@ -3,18 +3,33 @@ package za.ac.cput.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
     private final SecretKey SECRET_KEY = Keys.hmacShaKeyFor("mySecretKeyForJWTGenerationInLMNOPApplication2025".getBytes());
-    private final long EXPIRATION_TIME = 86400000; // 24 hours
+    // Access tokens are short-lived; sessions are extended through rotating refresh tokens
+    private final long EXPIRATION_TIME;
+
+    // Thread-safe once built; building one per call was most of the cost of a verification
+    private final JwtParser parser = Jwts.parser().verifyWith(SECRET_KEY).build();
+
+    public JwtUtil(@Value("${security.jwt.access-ttl-ms:900000}") long accessTtlMillis) {
+        this.EXPIRATION_TIME = accessTtlMillis;
+    }
+
+    public long getExpirationMillis() {
+        return EXPIRATION_TIME;
+    }
 
     public String generateToken(String email, String role, Long userId) {
         Map<String, Object> claims = new HashMap<>();
@@ -24,42 +39,46 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(email)
+                .id(UUID.randomUUID().toString()) // jti, the handle used to revoke this token
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SECRET_KEY)
                 .compact();
     }
 
+    // Parses and verifies the token once; throws JwtException if the signature is bad or it has expired
+    public VerifiedClaims verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return new VerifiedClaims(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("userId", Long.class),
+                claims.getExpiration().toInstant());
+    }
+
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return verify(token).email();
     }
 
     public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+        return verify(token).role();
     }
 
     public Long extractUserId(String token) {
-        return extractAllClaims(token).get("userId", Long.class);
+        return verify(token).userId();
     }
 
     public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return Date.from(verify(token).expiresAt());
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verify(token).isExpired(Instant.now());
     }
 
     public boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token));
+        VerifiedClaims claims = verify(token);
+        return claims.email().equals(email) && !claims.isExpired(Instant.now());
     }
 }
\ No newline at end of file
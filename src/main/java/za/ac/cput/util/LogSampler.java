@@ -0,0 +1,18 @@
+package za.ac.cput.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets one in every N calls through, for logging routine events on hot paths
+public class LogSampler {
+
+    private final long every;
+    private final AtomicLong counter = new AtomicLong();
+
+    public LogSampler(long every) {
+        this.every = Math.max(1, every);
+    }
+
+    public boolean sample() {
+        return every == 1 || counter.getAndIncrement() % every == 0;
+    }
+}
@@ -0,0 +1,56 @@
+package za.ac.cput.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A token bucket per key with a bounded number of keys. Idle (full) buckets are dropped by
+// evictIdle(). If the table is still full, new keys share one overflow bucket, so spraying
+// fresh keys (spoofed emails, rotating IPs) can't grow memory or buy extra attempts.
+// A full table triggers at most one inline scan per refill interval; other new keys in
+// between go straight to the overflow bucket rather than each paying for a scan.
+public class RateLimiter {
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final int maxKeys;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final AtomicLong lastEvictNanos;
+
+    public RateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this.capacity = capacity;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.overflow = new TokenBucket(capacity, intervalNanos);
+        this.lastEvictNanos = new AtomicLong(System.nanoTime() - intervalNanos);
+    }
+
+    // 0 if allowed, otherwise nanoseconds until the key may try again
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                long last = lastEvictNanos.get();
+                if (now - last >= intervalNanos && lastEvictNanos.compareAndSet(last, now)) {
+                    evictIdle();
+                }
+            }
+            bucket = buckets.size() < maxKeys
+                    ? buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, intervalNanos))
+                    : overflow;
+        }
+        return bucket.tryConsume(now);
+    }
+
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,41 @@
+package za.ac.cput.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket. Rather than a token count plus a refill timestamp it keeps a single
+// "theoretical arrival time": the instant the bucket would be full again. Taking a token moves
+// it one refill interval forward; the request is refused if that would put it more than
+// capacity intervals ahead of now. One CAS per call and no background refill.
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int capacity, long intervalNanos) {
+        this.intervalNanos = Math.max(1, intervalNanos);
+        this.burstNanos = this.intervalNanos * Math.max(1, capacity);
+    }
+
+    // 0 if a token was taken, otherwise nanoseconds until one will be available
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current == Long.MIN_VALUE || current - nowNanos < 0 ? nowNanos : current;
+            long next = base + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Full again, so forgetting it changes nothing
+    public boolean isIdle(long nowNanos) {
+        long current = fullAt.get();
+        return current == Long.MIN_VALUE || current - nowNanos <= 0;
+    }
+}
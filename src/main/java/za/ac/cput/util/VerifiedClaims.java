@@ -0,0 +1,11 @@
+package za.ac.cput.util;
+
+import java.time.Instant;
+
+// The claims of a token whose signature has already been checked; safe to cache and share
+public record VerifiedClaims(String tokenId, String email, String role, Long userId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
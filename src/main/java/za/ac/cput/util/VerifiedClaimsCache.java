@@ -0,0 +1,73 @@
+package za.ac.cput.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Verified claims for recently seen tokens, so repeat requests from the same session skip
+// parsing and signature verification. Keyed by a SHA-256 of the token (raw bearer tokens are
+// never held in memory) and each entry is only trusted until the token's own exp.
+@Component
+public class VerifiedClaimsCache {
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final Map<String, VerifiedClaims> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public VerifiedClaimsCache(JwtUtil jwtUtil,
+                               @Value("${security.jwt.cache.max-entries:10000}") int maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    // Same contract as JwtUtil.verify: throws JwtException for a bad or expired token
+    public VerifiedClaims verify(String token) {
+        String key = Helper.sha256Hex(token);
+        Instant now = Instant.now();
+        VerifiedClaims cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            entries.remove(key, cached);
+        }
+
+        VerifiedClaims claims = jwtUtil.verify(token);
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, claims);
+        return claims;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(Helper.sha256Hex(token));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries first; if that isn't enough, sheds arbitrary entries down to 90%
+    // of the bound. Those tokens simply get verified again on their next request.
+    private void evict(Instant now) {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            entries.values().removeIf(claims -> claims.isExpired(now));
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+-- Schema as previously generated by hibernate.ddl-auto=update. IF NOT EXISTS lets this run
+-- against databases that were created that way (baseline-version=0 makes Flyway apply it);
+-- the guarded ALTERs at the end bring tables created by older builds up to the same shape.
+
+CREATE TABLE IF NOT EXISTS admin (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    email      VARCHAR(255),
+    password   VARCHAR(255),
+    role       VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS `user` (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    email      VARCHAR(255),
+    password   VARCHAR(255),
+    role       VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS course (
+    id                 BIGINT        NOT NULL AUTO_INCREMENT,
+    title              VARCHAR(255),
+    description        VARCHAR(1000),
+    image_digest       VARCHAR(64),
+    image_size         BIGINT,
+    image_content_type VARCHAR(100),
+    image_updated_at   DATETIME(6),
+    capacity           INT,
+    seats_taken        INT           NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS enrollment (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    student_id      BIGINT      NOT NULL,
+    course_id       BIGINT      NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    enrollment_date DATETIME(6) NOT NULL,
+    waitlisted_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_enrollment_student FOREIGN KEY (student_id) REFERENCES `user` (id),
+    CONSTRAINT fk_enrollment_course FOREIGN KEY (course_id) REFERENCES course (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS course_enrollment_stats (
+    course_id        BIGINT NOT NULL,
+    pending_count    BIGINT NOT NULL,
+    approved_count   BIGINT NOT NULL,
+    rejected_count   BIGINT NOT NULL,
+    waitlisted_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS enrollment_archive (
+    id              BIGINT      NOT NULL,
+    student_id      BIGINT      NOT NULL,
+    course_id       BIGINT      NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    enrollment_date DATETIME(6) NOT NULL,
+    archived_at     DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS quiz (
+    id               BIGINT NOT NULL AUTO_INCREMENT,
+    quiz_title       VARCHAR(255),
+    quiz_description VARCHAR(255),
+    quiz_author      VARCHAR(255),
+    quiz_category    VARCHAR(255),
+    quiz_content     VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS support (
+    message_id BIGINT NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255),
+    email      VARCHAR(255),
+    message    VARCHAR(255),
+    PRIMARY KEY (message_id)
+) ENGINE = InnoDB;
+
+-- Columns added after the first ddl-auto schema. MySQL has no ADD COLUMN IF NOT EXISTS, so each
+-- one goes through a guarded prepared statement, like the indexes in V2.
+
+-- Content-addressed course images
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'image_digest') = 0,
+              'ALTER TABLE course ADD COLUMN image_digest VARCHAR(64)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'image_size') = 0,
+              'ALTER TABLE course ADD COLUMN image_size BIGINT', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'image_content_type') = 0,
+              'ALTER TABLE course ADD COLUMN image_content_type VARCHAR(100)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'image_updated_at') = 0,
+              'ALTER TABLE course ADD COLUMN image_updated_at DATETIME(6)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- Seat allocation
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'capacity') = 0,
+              'ALTER TABLE course ADD COLUMN capacity INT', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND column_name = 'seats_taken') = 0,
+              'ALTER TABLE course ADD COLUMN seats_taken INT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- Waitlist
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment' AND column_name = 'waitlisted_at') = 0,
+              'ALTER TABLE enrollment ADD COLUMN waitlisted_at DATETIME(6)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'course_enrollment_stats' AND column_name = 'waitlisted_count') = 0,
+              'ALTER TABLE course_enrollment_stats ADD COLUMN waitlisted_count BIGINT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
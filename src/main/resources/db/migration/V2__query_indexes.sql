@@ -0,0 +1,97 @@
+-- Indexes behind every repository lookup on a hot path. MySQL has no CREATE INDEX IF NOT
+-- EXISTS, and some of these may already exist from ddl-auto, so each one is added through
+-- a guarded prepared statement.
+
+-- Older schemas stored the status as a MySQL ENUM, which cannot hold WAITLISTED
+ALTER TABLE enrollment MODIFY status VARCHAR(20) NOT NULL;
+ALTER TABLE enrollment_archive MODIFY status VARCHAR(20) NOT NULL;
+
+-- The unique keys below fail on existing duplicates. Duplicate accounts can't be merged
+-- safely here (enrollments and tokens point at them), so the migration stops with the
+-- reason as the missing table's name; duplicate enrollments are removed further down.
+SET @ddl = IF((SELECT COUNT(*) FROM (SELECT email FROM `user` GROUP BY email HAVING COUNT(*) > 1) d) > 0,
+              'SELECT 1 FROM `Duplicate user.email values: merge those accounts first`', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM (SELECT email FROM admin GROUP BY email HAVING COUNT(*) > 1) d) > 0,
+              'SELECT 1 FROM `Duplicate admin.email values: merge those accounts first`', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- UserRepository.findByEmail (login, registration)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'uk_user_email') = 0,
+              'ALTER TABLE `user` ADD CONSTRAINT uk_user_email UNIQUE (email)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- UserRepository.findByFirstNameAndLastName (enroll)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'idx_user_name') = 0,
+              'CREATE INDEX idx_user_name ON `user` (first_name, last_name)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- AdminRepository.findByEmail (admin login)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'admin' AND index_name = 'uk_admin_email') = 0,
+              'ALTER TABLE admin ADD CONSTRAINT uk_admin_email UNIQUE (email)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- CourseRepository.findByTitle / findIdsByTitleIn
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND index_name = 'idx_course_title') = 0,
+              'CREATE INDEX idx_course_title ON course (title)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- CourseRepository.existsByImageDigest (image release on update/delete)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'course' AND index_name = 'idx_course_image_digest') = 0,
+              'CREATE INDEX idx_course_image_digest ON course (image_digest)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- Duplicate enrollments: keep one row per (student, course), the one with the most
+-- advanced status and then the lowest id, and rebuild the counters derived from them
+DELETE e FROM enrollment e
+JOIN enrollment k ON k.student_id = e.student_id AND k.course_id = e.course_id
+    AND (FIELD(k.status, 'REJECTED', 'PENDING', 'WAITLISTED', 'APPROVED') > FIELD(e.status, 'REJECTED', 'PENDING', 'WAITLISTED', 'APPROVED')
+         OR (k.status = e.status AND k.id < e.id));
+SET @removed = ROW_COUNT();
+
+UPDATE course c SET c.seats_taken =
+    (SELECT COUNT(*) FROM enrollment e WHERE e.course_id = c.id AND e.status = 'APPROVED') +
+    (SELECT COUNT(*) FROM enrollment_archive a WHERE a.course_id = c.id AND a.status = 'APPROVED')
+WHERE @removed > 0;
+-- Emptied counters are reseeded from the enrollments at startup
+DELETE FROM course_enrollment_stats WHERE @removed > 0;
+
+-- existsByStudentAndCourse and findByStudent (leftmost column); also enforces one enrollment per pair
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment' AND index_name = 'uk_enrollment_student_course') = 0,
+              'ALTER TABLE enrollment ADD CONSTRAINT uk_enrollment_student_course UNIQUE (student_id, course_id)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- findByCourse, per-course status counts and the waitlist head (ordered by waitlisted_at)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment' AND index_name = 'idx_enrollment_waitlist') = 0,
+              'CREATE INDEX idx_enrollment_waitlist ON enrollment (course_id, status, waitlisted_at)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- findByStatus and the archiver's status + cutoff scan
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment' AND index_name = 'idx_enrollment_status_date') = 0,
+              'CREATE INDEX idx_enrollment_status_date ON enrollment (status, enrollment_date)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- EnrollmentArchiveRepository lookups
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment_archive' AND index_name = 'idx_enrollment_archive_student') = 0,
+              'CREATE INDEX idx_enrollment_archive_student ON enrollment_archive (student_id)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment_archive' AND index_name = 'idx_enrollment_archive_course') = 0,
+              'CREATE INDEX idx_enrollment_archive_course ON enrollment_archive (course_id)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'enrollment_archive' AND index_name = 'idx_enrollment_archive_status') = 0,
+              'CREATE INDEX idx_enrollment_archive_status ON enrollment_archive (status)', 'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
@@ -0,0 +1,23 @@
+-- Rotating refresh tokens (stored as SHA-256 only) and revoked access-token ids
+
+CREATE TABLE refresh_token (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash   VARCHAR(64) NOT NULL,
+    account_type VARCHAR(10) NOT NULL,
+    account_id   BIGINT      NOT NULL,
+    family_id    VARCHAR(36) NOT NULL,
+    created_at   DATETIME(6) NOT NULL,
+    expires_at   DATETIME(6) NOT NULL,
+    revoked_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash),
+    INDEX idx_refresh_token_family (family_id),
+    INDEX idx_refresh_token_account (account_type, account_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE revoked_token (
+    jti        VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (jti),
+    INDEX idx_revoked_token_expires (expires_at)
+) ENGINE = InnoDB;
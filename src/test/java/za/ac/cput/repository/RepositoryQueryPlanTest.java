@@ -0,0 +1,256 @@
+package za.ac.cput.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import za.ac.cput.domain.Enrollment;
+import za.ac.cput.domain.RefreshToken;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Runs the hot-path repository queries against MySQL with the Flyway schema, captures the SQL
+// Hibernate actually sends (from the server's general log, parameters already bound), EXPLAINs
+// it and fails if any table in the plan is read with a full scan (type ALL).
+// The tables are seeded with a few thousand rows and analyzed first, so the plans are the ones
+// a real database gets; on near-empty tables MySQL scans regardless of the indexes.
+// Queries that read a whole table by design (findAll*, the filter-based bulk updates) are not
+// checked. Skipped when Docker isn't available.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryQueryPlanTest {
+
+    // root, to switch the general log on and read mysql.general_log
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withUsername("root");
+
+    private static final int USERS = 2000;
+    private static final int COURSES = 200;
+    private static final int COURSES_PER_STUDENT = 5;
+    private static final int ARCHIVED = 5000;
+    private static final long ARCHIVE_ID_OFFSET = 1_000_000L;
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(select|update|delete)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate tx;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AdminRepository adminRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private EnrollmentRepository enrollmentRepository;
+    @Autowired private EnrollmentArchiveRepository archiveRepository;
+    @Autowired private CourseEnrollmentStatsRepository statsRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> admins = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            admins.add(new Object[]{"Admin" + i, "Last" + i, "admin" + i + "@uni.ac.za"});
+        }
+        jdbc.batchUpdate("INSERT INTO admin (first_name, last_name, email, password, role) VALUES (?, ?, ?, 'x', 'ADMIN')",
+                admins);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"First" + (i % 100), "Last" + i, "student" + i + "@uni.ac.za"});
+        }
+        jdbc.batchUpdate("INSERT INTO `user` (first_name, last_name, email, password, role) VALUES (?, ?, ?, 'x', 'USER')",
+                users);
+
+        List<Object[]> courses = new ArrayList<>();
+        for (int i = 1; i <= COURSES; i++) {
+            courses.add(new Object[]{"Course " + i, String.format("%064x", i)});
+        }
+        jdbc.batchUpdate("INSERT INTO course (title, description, image_digest, capacity) VALUES (?, 'x', ?, 100)",
+                courses);
+
+        // Mostly APPROVED, a few percent in each of the other statuses, like a live term
+        List<Object[]> enrollments = new ArrayList<>();
+        for (int student = 1; student <= USERS; student++) {
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                int n = student * COURSES_PER_STUDENT + k;
+                String status = switch (n % 50) {
+                    case 0 -> "PENDING";
+                    case 1 -> "WAITLISTED";
+                    case 2 -> "REJECTED";
+                    default -> "APPROVED";
+                };
+                Timestamp enrolled = Timestamp.valueOf(now.minusMinutes(n));
+                enrollments.add(new Object[]{student, (student * 7 + k * 13) % COURSES + 1, status, enrolled,
+                        "WAITLISTED".equals(status) ? enrolled : null});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO enrollment (student_id, course_id, status, enrollment_date, waitlisted_at) " +
+                "VALUES (?, ?, ?, ?, ?)", enrollments);
+
+        List<Object[]> archived = new ArrayList<>();
+        for (int i = 1; i <= ARCHIVED; i++) {
+            archived.add(new Object[]{ARCHIVE_ID_OFFSET + i, i % USERS + 1, (i * 11) % COURSES + 1,
+                    i % 20 == 0 ? "APPROVED" : "REJECTED", Timestamp.valueOf(now.minusYears(2).minusMinutes(i))});
+        }
+        jdbc.batchUpdate("INSERT INTO enrollment_archive (id, student_id, course_id, status, enrollment_date, archived_at) " +
+                "VALUES (?, ?, ?, ?, ?, NOW(6))", archived);
+
+        List<Object[]> stats = new ArrayList<>();
+        for (int i = 1; i <= COURSES; i++) {
+            stats.add(new Object[]{i});
+        }
+        jdbc.batchUpdate("INSERT INTO course_enrollment_stats (course_id, pending_count, approved_count, rejected_count, " +
+                "waitlisted_count) VALUES (?, 1, 40, 1, 1)", stats);
+
+        List<Object[]> tokens = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            tokens.add(new Object[]{String.format("%064x", i), i, "family-" + (i / 5),
+                    Timestamp.from(Instant.now().plusSeconds(86_400))});
+        }
+        jdbc.batchUpdate("INSERT INTO refresh_token (token_hash, account_type, account_id, family_id, created_at, expires_at) " +
+                "VALUES (?, 'USER', ?, ?, NOW(6), ?)", tokens);
+
+        jdbc.execute("ANALYZE TABLE admin, `user`, course, enrollment, enrollment_archive, " +
+                "course_enrollment_stats, refresh_token");
+        jdbc.execute("SET GLOBAL log_output = 'TABLE'");
+        jdbc.execute("SET GLOBAL general_log = 'ON'");
+    }
+
+    @Test
+    void userAndAdminLookupsUseIndexes() {
+        assertNoFullScan("UserRepository.findByEmail", () -> userRepository.findByEmail("student42@uni.ac.za"));
+        assertNoFullScan("UserRepository.findByFirstNameAndLastName",
+                () -> userRepository.findByFirstNameAndLastName("First42", "Last42"));
+        assertNoFullScan("UserRepository.findProfileById", () -> userRepository.findProfileById(42L));
+        assertNoFullScan("UserRepository.findExistingIds", () -> userRepository.findExistingIds(List.of(1L, 2L, 3L)));
+        assertNoFullScan("UserRepository.findIdsByEmailIn",
+                () -> userRepository.findIdsByEmailIn(List.of("student1@uni.ac.za", "student2@uni.ac.za")));
+        assertNoFullScan("UserRepository.upgradePassword", () -> userRepository.upgradePassword(42L, "x", "y"));
+        assertNoFullScan("AdminRepository.findByEmail", () -> adminRepository.findByEmail("admin7@uni.ac.za"));
+        assertNoFullScan("AdminRepository.findProfileById", () -> adminRepository.findProfileById(7L));
+    }
+
+    @Test
+    void courseLookupsUseIndexes() {
+        String digest = String.format("%064x", 42);
+        assertNoFullScan("CourseRepository.findByTitle", () -> courseRepository.findByTitle("Course 42"));
+        assertNoFullScan("CourseRepository.existsByImageDigest", () -> courseRepository.existsByImageDigest(digest));
+        assertNoFullScan("CourseRepository.findImageDigestsIn",
+                () -> courseRepository.findImageDigestsIn(List.of(digest, "0".repeat(64))));
+        assertNoFullScan("CourseRepository.findMediaById", () -> courseRepository.findMediaById(42L));
+        assertNoFullScan("CourseRepository.findSummaryById", () -> courseRepository.findSummaryById(42L));
+        assertNoFullScan("CourseRepository.findSummariesByIdIn",
+                () -> courseRepository.findSummariesByIdIn(List.of(1L, 2L, 3L)));
+        assertNoFullScan("CourseRepository.findSeats", () -> courseRepository.findSeats(42L));
+        assertNoFullScan("CourseRepository.findExistingIds", () -> courseRepository.findExistingIds(List.of(1L, 2L)));
+        assertNoFullScan("CourseRepository.findIdsByTitleIn",
+                () -> courseRepository.findIdsByTitleIn(List.of("Course 1", "Course 2")));
+        assertNoFullScan("CourseRepository.countOverCapacity",
+                () -> courseRepository.countOverCapacity(List.of(1L, 2L)));
+        assertNoFullScan("CourseRepository.allocateSeat", () -> courseRepository.allocateSeat(42L));
+        assertNoFullScan("CourseRepository.releaseSeat", () -> courseRepository.releaseSeat(42L));
+        assertNoFullScan("CourseRepository.recountSeats", () -> courseRepository.recountSeats(List.of(41L, 42L)));
+        assertNoFullScan("CourseEnrollmentStatsRepository.findDTOByCourseId",
+                () -> statsRepository.findDTOByCourseId(42L));
+    }
+
+    @Test
+    void enrollmentLookupsUseIndexes() {
+        assertNoFullScan("EnrollmentRepository.existsByStudentAndCourse", () -> enrollmentRepository
+                .existsByStudentAndCourse(userRepository.getReferenceById(42L), courseRepository.getReferenceById(7L)));
+        assertNoFullScan("EnrollmentRepository.findByStudent",
+                () -> enrollmentRepository.findByStudent(userRepository.getReferenceById(42L)));
+        assertNoFullScan("EnrollmentRepository.findByCourse",
+                () -> enrollmentRepository.findByCourse(courseRepository.getReferenceById(7L)));
+        assertNoFullScan("EnrollmentRepository.findByStatus",
+                () -> enrollmentRepository.findByStatus(Enrollment.Status.PENDING));
+        assertNoFullScan("EnrollmentRepository.findByIdForUpdate", () -> enrollmentRepository.findByIdForUpdate(42L));
+        assertNoFullScan("EnrollmentRepository.findCourseIdsByIdIn",
+                () -> enrollmentRepository.findCourseIdsByIdIn(List.of(1L, 2L, 3L)));
+        assertNoFullScan("EnrollmentRepository.findStudentIdsByIdIn",
+                () -> enrollmentRepository.findStudentIdsByIdIn(List.of(1L, 2L, 3L), Enrollment.Status.REJECTED));
+        assertNoFullScan("EnrollmentRepository.updateStatusByIdIn", () -> enrollmentRepository
+                .updateStatusByIdIn(List.of(1L, 2L, 3L), Enrollment.Status.REJECTED, null));
+        assertNoFullScan("EnrollmentRepository.lockWaitlistHead", () -> enrollmentRepository.lockWaitlistHead(7L, 10));
+        assertNoFullScan("EnrollmentRepository.promoteWaitlisted",
+                () -> enrollmentRepository.promoteWaitlisted(List.of(1L, 2L, 3L)));
+        assertNoFullScan("EnrollmentRepository.findCourseIdsWithWaitlist",
+                () -> enrollmentRepository.findCourseIdsWithWaitlist());
+        assertNoFullScan("EnrollmentRepository.findPairs",
+                () -> enrollmentRepository.findPairs(List.of(1L, 2L, 3L), List.of(7L, 8L)));
+        assertNoFullScan("EnrollmentRepository.findDTOsByStudentId", () -> enrollmentRepository.findDTOsByStudentId(42L));
+        assertNoFullScan("EnrollmentRepository.findDTOsByCourseId", () -> enrollmentRepository.findDTOsByCourseId(7L));
+        assertNoFullScan("EnrollmentRepository.findDTOsByStatus",
+                () -> enrollmentRepository.findDTOsByStatus(Enrollment.Status.PENDING));
+    }
+
+    @Test
+    void archiveLookupsUseIndexes() {
+        assertNoFullScan("EnrollmentArchiveRepository.lockCountByStudentAndCourse",
+                () -> archiveRepository.lockCountByStudentAndCourse(42L, 7L));
+        assertNoFullScan("EnrollmentArchiveRepository.findPairs",
+                () -> archiveRepository.findPairs(List.of(1L, 2L, 3L), List.of(7L, 8L)));
+        assertNoFullScan("EnrollmentArchiveRepository.findDTOsByStudentId",
+                () -> archiveRepository.findDTOsByStudentId(42L));
+        assertNoFullScan("EnrollmentArchiveRepository.findDTOsByCourseId",
+                () -> archiveRepository.findDTOsByCourseId(7L));
+        assertNoFullScan("EnrollmentArchiveRepository.findDTOsByStatus",
+                () -> archiveRepository.findDTOsByStatus(Enrollment.Status.APPROVED));
+    }
+
+    @Test
+    void refreshTokenLookupsUseIndexes() {
+        Instant now = Instant.now();
+        assertNoFullScan("RefreshTokenRepository.findByTokenHash",
+                () -> refreshTokenRepository.findByTokenHash(String.format("%064x", 42)));
+        assertNoFullScan("RefreshTokenRepository.markUsed", () -> refreshTokenRepository.markUsed(42L, now));
+        assertNoFullScan("RefreshTokenRepository.revokeFamily",
+                () -> refreshTokenRepository.revokeFamily("family-8", now));
+        assertNoFullScan("RefreshTokenRepository.revokeAllForAccount",
+                () -> refreshTokenRepository.revokeAllForAccount(RefreshToken.AccountType.USER, 42L, now));
+    }
+
+    // Runs the call in a rolled-back transaction and EXPLAINs every statement it sent
+    private void assertNoFullScan(String query, Runnable call) {
+        jdbc.execute("TRUNCATE TABLE mysql.general_log");
+        tx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            call.run();
+        });
+        List<String> statements = jdbc.queryForList("SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log " +
+                        "WHERE command_type = 'Query' ORDER BY event_time", String.class).stream()
+                .filter(sql -> EXPLAINABLE.matcher(sql).find() && !sql.contains("general_log") && !sql.contains("@@"))
+                .toList();
+
+        assertFalse(statements.isEmpty(), query + " sent no query");
+        for (String sql : statements) {
+            for (Map<String, Object> row : jdbc.queryForList("EXPLAIN " + sql)) {
+                assertNotEquals("ALL", row.get("type"),
+                        () -> query + " does a full scan of " + row.get("table") + ":\n" + sql);
+            }
+        }
+    }
+}